@@ -0,0 +1,56 @@
+#!/bin/sh
+# Время старта и RSS вариантов образа (Dockerfile: jvm, aot-cds, native) против БД из docker compose.
+# Запуск из корня репозитория: docker/measure-startup.sh [варианты...] (по умолчанию все три).
+# Для каждого варианта: "Started ... in" из лога Spring, время от docker run до первого ответа
+# /actuator/health и RSS процесса сразу после старта и после прогрева REQUESTS запросами GET /users.
+set -e
+
+VARIANTS=${*:-jvm aot-cds native}
+RUNS=${RUNS:-3}
+REQUESTS=${REQUESTS:-200}
+DB_URL=jdbc:postgresql://db:5432/user_subscription_db
+
+docker compose up -d --wait db
+docker compose run --rm --build migrate
+NETWORK=$(docker inspect user-subscription-db -f '{{range $name, $n := .NetworkSettings.Networks}}{{$name}}{{end}}')
+
+now_ms() {
+    date +%s%3N
+}
+
+rss_mb() {
+    docker top "$1" -o rss | awk 'NR > 1 { sum += $1 } END { printf "%.0f", sum / 1024 }'
+}
+
+printf '%-8s %-4s %-12s %-14s %-14s %-14s\n' variant run started_s first_reply_ms rss_start_mb rss_warm_mb
+for variant in $VARIANTS; do
+    docker build -q --target "$variant" -t "user-subscription-service:$variant" . > /dev/null
+    run=1
+    while [ "$run" -le "$RUNS" ]; do
+        container=user-subscription-startup-$variant
+        started_at=$(now_ms)
+        docker run -d --rm --name "$container" --network "$NETWORK" -p 127.0.0.1::8080 \
+            -e SPRING_DATASOURCE_URL=$DB_URL \
+            -e SPRING_LIQUIBASE_ENABLED=false \
+            -e APP_SEED_ENABLED=false \
+            -e SPRING_JPA_SHOW_SQL=false \
+            "user-subscription-service:$variant" > /dev/null
+        port=$(docker port "$container" 8080/tcp | head -n 1 | sed 's/.*://')
+        until curl -fs "http://127.0.0.1:$port/actuator/health" > /dev/null 2>&1; do
+            sleep 0.05
+        done
+        first_reply=$(( $(now_ms) - started_at ))
+        started=$(docker logs "$container" 2>&1 | sed -n 's/.*Started .* in \([0-9.]*\) seconds.*/\1/p')
+        rss_start=$(rss_mb "$container")
+        i=0
+        while [ "$i" -lt "$REQUESTS" ]; do
+            curl -fs "http://127.0.0.1:$port/users?size=20" > /dev/null
+            i=$((i + 1))
+        done
+        rss_warm=$(rss_mb "$container")
+        docker stop "$container" > /dev/null
+        printf '%-8s %-4s %-12s %-14s %-14s %-14s\n' \
+            "$variant" "$run" "$started" "$first_reply" "$rss_start" "$rss_warm"
+        run=$((run + 1))
+    done
+done
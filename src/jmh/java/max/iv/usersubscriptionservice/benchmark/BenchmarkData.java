@@ -0,0 +1,50 @@
+package max.iv.usersubscriptionservice.benchmark;
+
+import max.iv.usersubscriptionservice.models.Subscription;
+import max.iv.usersubscriptionservice.models.User;
+import max.iv.usersubscriptionservice.models.enums.ServiceName;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.UUID;
+
+/**
+ * Детерминированные сущности для бенчмарков: без БД и без прокси Hibernate.
+ */
+final class BenchmarkData {
+
+    private static final ServiceName[] SERVICE_NAMES = ServiceName.values();
+
+    private BenchmarkData() {
+    }
+
+    static User user(int index, int subscriptionCount) {
+        User user = new User();
+        user.setId(new UUID(0L, index));
+        user.setUsername("bench.user." + index);
+        user.setEmail("bench.user." + index + "@example.com");
+        user.setPassword("password");
+        user.setFirstName("Bench");
+        user.setLastName("User" + index);
+        user.setCreatedAt(LocalDateTime.of(2024, 1, 1, 12, 0).plusMinutes(index));
+        user.setUpdatedAt(user.getCreatedAt());
+        user.setSubscriptions(new HashSet<>());
+        for (int i = 0; i < subscriptionCount; i++) {
+            user.getSubscriptions().add(subscription(user, i));
+        }
+        return user;
+    }
+
+    static Subscription subscription(User user, int index) {
+        Subscription subscription = new Subscription();
+        subscription.setId(new UUID(1L, index));
+        subscription.setServiceName(SERVICE_NAMES[index % SERVICE_NAMES.length]);
+        subscription.setStartDate(LocalDate.of(2024, 1, 1).plusDays(index));
+        subscription.setEndDate(index % 2 == 0 ? null : LocalDate.of(2025, 1, 1).plusDays(index));
+        subscription.setCreatedAt(LocalDateTime.of(2024, 1, 1, 12, 0));
+        subscription.setUpdatedAt(subscription.getCreatedAt());
+        subscription.setUser(user);
+        return subscription;
+    }
+}
@@ -0,0 +1,57 @@
+package max.iv.usersubscriptionservice.benchmark;
+
+import max.iv.usersubscriptionservice.dto.SubscriptionResponseDto;
+import max.iv.usersubscriptionservice.dto.UserWithSubscriptionNamesDto;
+import max.iv.usersubscriptionservice.mapper.SubscriptionMapper;
+import max.iv.usersubscriptionservice.mapper.UserMapper;
+import max.iv.usersubscriptionservice.models.Subscription;
+import max.iv.usersubscriptionservice.models.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MapperBenchmark {
+
+    @Param({"0", "3", "20"})
+    private int subscriptionCount;
+
+    private final UserMapper userMapper = new UserMapper();
+
+    private final SubscriptionMapper subscriptionMapper = new SubscriptionMapper();
+
+    private User user;
+
+    private Subscription subscription;
+
+    @Setup
+    public void setUp() {
+        user = BenchmarkData.user(1, subscriptionCount);
+        subscription = BenchmarkData.subscription(user, 1);
+    }
+
+    @Benchmark
+    public UserWithSubscriptionNamesDto toUserWithSubscriptionNamesDto() {
+        return userMapper.toUserWithSubscriptionNamesDto(user);
+    }
+
+    @Benchmark
+    public SubscriptionResponseDto toSubscriptionResponseDto() {
+        return subscriptionMapper.toSubscriptionResponseDto(subscription);
+    }
+}
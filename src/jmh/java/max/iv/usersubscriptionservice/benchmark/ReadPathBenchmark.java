@@ -0,0 +1,173 @@
+package max.iv.usersubscriptionservice.benchmark;
+
+import max.iv.usersubscriptionservice.UserSubscriptionServiceApplication;
+import max.iv.usersubscriptionservice.dto.SubscriptionResponseDto;
+import max.iv.usersubscriptionservice.dto.UserResponseDto;
+import max.iv.usersubscriptionservice.dto.UserWithSubscriptionNamesDto;
+import max.iv.usersubscriptionservice.mapper.SubscriptionMapper;
+import max.iv.usersubscriptionservice.mapper.UserMapper;
+import max.iv.usersubscriptionservice.models.User;
+import max.iv.usersubscriptionservice.repository.SubscriptionRepository;
+import max.iv.usersubscriptionservice.repository.UserRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Чтение через управляемые сущности и маппер против чтения проекцией сразу в DTO.
+ * Поднимает приложение без веб-слоя против PostgreSQL в Testcontainers; каждый вызов — read-only транзакция,
+ * как в сервисе. Время — {@code avgt}, аллокации — {@code gc.alloc.rate.norm} профилировщика GC.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ReadPathBenchmark {
+
+    private static final int USERS = 2_000;
+
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"3"})
+    private int subscriptionsPerUser;
+
+    private PostgreSQLContainer<?> postgres;
+
+    private ConfigurableApplicationContext context;
+
+    private UserRepository userRepository;
+
+    private SubscriptionRepository subscriptionRepository;
+
+    private UserMapper userMapper;
+
+    private SubscriptionMapper subscriptionMapper;
+
+    private TransactionTemplate readOnlyTransaction;
+
+    private List<UUID> userIds;
+
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void startApplication() {
+        postgres = new PostgreSQLContainer<>("postgres:16-alpine").withDatabaseName("benchmark-db");
+        postgres.start();
+
+        // properties() билдера задаёт только значения по умолчанию, и application.properties их перекрывает,
+        // поэтому настройки передаются аргументами командной строки
+        context = new SpringApplicationBuilder(UserSubscriptionServiceApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=" + postgres.getJdbcUrl(),
+                        "--spring.datasource.username=" + postgres.getUsername(),
+                        "--spring.datasource.password=" + postgres.getPassword(),
+                        "--spring.jpa.show-sql=false",
+                        // Лог метрик каждой сессии Hibernate перекрыл бы разницу между путями чтения
+                        "--spring.jpa.properties.hibernate.generate_statistics=false",
+                        // Демо-данные пересекаются с подписками, которые засевает бенчмарк
+                        "--app.seed.enabled=false",
+                        "--logging.level.max.iv.usersubscriptionservice=WARN");
+        userRepository = context.getBean(UserRepository.class);
+        subscriptionRepository = context.getBean(SubscriptionRepository.class);
+        userMapper = context.getBean(UserMapper.class);
+        subscriptionMapper = context.getBean(SubscriptionMapper.class);
+        readOnlyTransaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnlyTransaction.setReadOnly(true);
+
+        seed(context.getBean(JdbcTemplate.class));
+        userIds = userRepository.findAll().stream().map(User::getId).collect(Collectors.toList());
+    }
+
+    private void seed(JdbcTemplate jdbcTemplate) {
+        jdbcTemplate.update("INSERT INTO users (username, email, password, first_name, last_name) " +
+                "SELECT 'bench.user.' || g, 'bench.user.' || g || '@example.com', 'password', 'Bench', 'User' || g " +
+                "FROM generate_series(1, ?) g", USERS);
+        jdbcTemplate.update("INSERT INTO subscriptions (service_name, start_date, user_id) " +
+                "SELECT s.service_name, CURRENT_DATE, u.id FROM users u " +
+                "CROSS JOIN (SELECT unnest(?::varchar[]) AS service_name) s",
+                (Object) List.of("YOUTUBE_PREMIUM", "VK_MUSIC", "YANDEX_PLUS", "NETFLIX_STANDARD")
+                        .subList(0, subscriptionsPerUser).toArray(String[]::new));
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+        postgres.stop();
+    }
+
+    private UUID nextUserId() {
+        cursor = (cursor + 1) % userIds.size();
+        return userIds.get(cursor);
+    }
+
+    private List<UUID> nextPage() {
+        cursor = (cursor + PAGE_SIZE) % (userIds.size() - PAGE_SIZE);
+        return userIds.subList(cursor, cursor + PAGE_SIZE);
+    }
+
+    @Benchmark
+    public UserResponseDto userByIdEntity() {
+        UUID userId = nextUserId();
+        return readOnlyTransaction.execute(status ->
+                userRepository.findById(userId).map(userMapper::toUserResponseDto).orElseThrow());
+    }
+
+    @Benchmark
+    public UserResponseDto userByIdProjection() {
+        UUID userId = nextUserId();
+        return readOnlyTransaction.execute(status -> userRepository.findResponseDtoById(userId).orElseThrow());
+    }
+
+    @Benchmark
+    public List<SubscriptionResponseDto> userSubscriptionsEntity() {
+        UUID userId = nextUserId();
+        return readOnlyTransaction.execute(status -> subscriptionRepository.findByUserId(userId).stream()
+                .map(subscriptionMapper::toSubscriptionResponseDto)
+                .collect(Collectors.toList()));
+    }
+
+    @Benchmark
+    public List<SubscriptionResponseDto> userSubscriptionsProjection() {
+        UUID userId = nextUserId();
+        return readOnlyTransaction.execute(status -> subscriptionRepository.findResponseDtosByUserId(userId));
+    }
+
+    @Benchmark
+    public List<UserWithSubscriptionNamesDto> usersPageEntity() {
+        List<UUID> page = nextPage();
+        return readOnlyTransaction.execute(status -> userRepository.findUsersWithSubscriptionsByIds(page).stream()
+                .map(userMapper::toUserWithSubscriptionNamesDto)
+                .collect(Collectors.toList()));
+    }
+
+    @Benchmark
+    public List<UserWithSubscriptionNamesDto> usersPageProjection() {
+        List<UUID> page = nextPage();
+        return readOnlyTransaction.execute(status -> userRepository.findUsersWithSubscriptionNamesByIds(page));
+    }
+}
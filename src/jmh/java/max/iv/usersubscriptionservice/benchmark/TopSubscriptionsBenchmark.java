@@ -0,0 +1,46 @@
+package max.iv.usersubscriptionservice.benchmark;
+
+import max.iv.usersubscriptionservice.models.enums.ServiceName;
+import max.iv.usersubscriptionservice.statistics.SubscriptionPopularityCounter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Разбор строк {@code (serviceName, count)} из агрегирующего запроса популярности подписок.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TopSubscriptionsBenchmark {
+
+    private List<Object[]> rows;
+
+    @Setup
+    public void setUp() {
+        rows = new ArrayList<>();
+        ServiceName[] serviceNames = ServiceName.values();
+        for (int i = 0; i < serviceNames.length; i++) {
+            rows.add(new Object[]{serviceNames[i], (long) (1000 - i * 100)});
+        }
+    }
+
+    @Benchmark
+    public long[] decodeCounts() {
+        return SubscriptionPopularityCounter.decodeCounts(rows);
+    }
+}
@@ -0,0 +1,167 @@
+package max.iv.usersubscriptionservice.availability;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import max.iv.usersubscriptionservice.models.User;
+import max.iv.usersubscriptionservice.util.TransactionCallbacks;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory Bloom filters over all usernames and emails. A negative answer is definitive, so
+ * availability checks only go to the database for possible hits. New values are added after the
+ * writing transaction commits; removed values cannot be taken out of a Bloom filter and stay as
+ * false positives until the filters are rebuilt from the users table. A rebuild fills a shadow
+ * filter that also receives concurrent additions and replaces the live one once complete.
+ * Additions read the shadow filter before the live one. The rebuild publishes the new live filter
+ * before it clears the shadow, so an addition that finds no shadow filter finds the new live one.
+ * Until the first build finishes every lookup is a possible hit.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UserAvailabilityFilter {
+
+    private static final String SELECT_IDENTITIES_SQL = "SELECT username, email FROM users";
+
+    private static final int FETCH_SIZE = 1000;
+
+    private static final long MIN_CAPACITY = 10_000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${users.availability.false-positive-probability:0.01}")
+    private double falsePositiveProbability;
+
+    @Value("${users.availability.rebuild-interval:PT6H}")
+    private Duration rebuildInterval;
+
+    @Value("${users.availability.stale-ratio:0.1}")
+    private double staleRatio;
+
+    private volatile Filters current;
+
+    private volatile Filters building;
+
+    private volatile Instant lastRebuild = Instant.EPOCH;
+
+    private volatile long capacity;
+
+    private final AtomicLong added = new AtomicLong();
+
+    private final AtomicLong removed = new AtomicLong();
+
+    public boolean mightContainUsername(String username) {
+        Filters filters = current;
+        return filters == null || filters.usernames().mightContain(username);
+    }
+
+    public boolean mightContainEmail(String email) {
+        Filters filters = current;
+        return filters == null || filters.emails().mightContain(email);
+    }
+
+    /**
+     * Registers a user's username and email (either may be {@code null}) once the current transaction commits.
+     */
+    public void recordAdded(String username, String email) {
+        TransactionCallbacks.afterCommit(() -> {
+            Filters shadow = building;
+            put(shadow, username, email);
+            put(current, username, email);
+            added.incrementAndGet();
+        });
+    }
+
+    public void recordAdded(Collection<User> users) {
+        if (users.isEmpty()) {
+            return;
+        }
+        List<User> created = List.copyOf(users);
+        TransactionCallbacks.afterCommit(() -> {
+            Filters shadow = building;
+            Filters live = current;
+            for (User user : created) {
+                put(shadow, user.getUsername(), user.getEmail());
+                put(live, user.getUsername(), user.getEmail());
+            }
+            added.addAndGet(created.size());
+        });
+    }
+
+    /**
+     * Counts a deleted or renamed user towards the stale entries that trigger an early rebuild.
+     */
+    public void recordRemoved() {
+        TransactionCallbacks.afterCommit(removed::incrementAndGet);
+    }
+
+    @Scheduled(fixedDelayString = "${users.availability.check-interval:PT1M}",
+            initialDelayString = "${users.availability.check-interval:PT1M}")
+    public void rebuildIfStale() {
+        boolean expired = Duration.between(lastRebuild, Instant.now()).compareTo(rebuildInterval) >= 0;
+        boolean stale = removed.get() > staleRatio * Math.max(capacity / 2, 1);
+        // Фильтр переполнен сверх расчётной ёмкости — вероятность ложных срабатываний растёт
+        boolean overfilled = added.get() > capacity / 2;
+        if (current == null || expired || stale || overfilled) {
+            rebuild();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        long started = System.nanoTime();
+        Long users = jdbcTemplate.queryForObject("SELECT count(*) FROM users", Long.class);
+        long newCapacity = Math.max((users != null ? users : 0) * 2, MIN_CAPACITY);
+        Filters shadow = new Filters(new BloomFilter(newCapacity, falsePositiveProbability),
+                new BloomFilter(newCapacity, falsePositiveProbability));
+        // С этого момента новые значения пишутся и в строящийся фильтр, поэтому ничего не теряется
+        building = shadow;
+        added.set(0);
+        removed.set(0);
+        // Курсорное чтение (fetch size) работает только внутри транзакции
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(SELECT_IDENTITIES_SQL);
+            statement.setFetchSize(FETCH_SIZE);
+            return statement;
+        }, rs -> {
+            put(shadow, rs.getString(1), rs.getString(2));
+        }));
+        current = shadow;
+        building = null;
+        capacity = newCapacity;
+        lastRebuild = Instant.now();
+        log.info("Rebuilt username/email availability filters for {} users in {} ms, {} KB",
+                users, Duration.ofNanos(System.nanoTime() - started).toMillis(),
+                (shadow.usernames().sizeInBytes() + shadow.emails().sizeInBytes()) / 1024);
+    }
+
+    private static void put(Filters filters, String username, String email) {
+        if (filters == null) {
+            return;
+        }
+        if (username != null) {
+            filters.usernames().put(username);
+        }
+        if (email != null) {
+            filters.emails().put(email);
+        }
+    }
+
+    private record Filters(BloomFilter usernames, BloomFilter emails) {
+    }
+}
@@ -0,0 +1,56 @@
+package max.iv.usersubscriptionservice.cache;
+
+import jakarta.persistence.EntityManagerFactory;
+import max.iv.usersubscriptionservice.models.User;
+import max.iv.usersubscriptionservice.util.TransactionCallbacks;
+import org.hibernate.Cache;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Keeps the cached {@code User.subscriptions} collections consistent with writes that do not
+ * go through the owning collection: subscriptions saved or deleted on their own and JDBC batches.
+ * Every method is a no-op while the second-level cache is disabled.
+ */
+@Component
+public class UserSubscriptionsCache {
+
+    private static final String SUBSCRIPTIONS_ROLE = User.class.getName() + ".subscriptions";
+
+    private final SessionFactoryImplementor sessionFactory;
+
+    // Настройка фиксируется при сборке фабрики сессий
+    private final boolean enabled;
+
+    public UserSubscriptionsCache(EntityManagerFactory entityManagerFactory) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        this.enabled = sessionFactory.getSessionFactoryOptions().isSecondLevelCacheEnabled();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void evict(UUID userId) {
+        evict(List.of(userId));
+    }
+
+    public void evict(Collection<UUID> userIds) {
+        if (!enabled || userIds.isEmpty()) {
+            return;
+        }
+        List<UUID> owners = List.copyOf(userIds);
+        evictNow(owners);
+        // Повторяем после коммита: конкурентное чтение могло положить в кэш старое состояние
+        TransactionCallbacks.afterCommit(() -> evictNow(owners));
+    }
+
+    private void evictNow(List<UUID> userIds) {
+        Cache cache = sessionFactory.getCache();
+        userIds.forEach(userId -> cache.evictCollectionData(SUBSCRIPTIONS_ROLE, userId));
+    }
+}
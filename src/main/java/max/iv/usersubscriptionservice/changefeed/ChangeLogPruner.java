@@ -0,0 +1,121 @@
+package max.iv.usersubscriptionservice.changefeed;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import max.iv.usersubscriptionservice.repository.ChangeLogJdbcRepository;
+import max.iv.usersubscriptionservice.util.TransactionCallbacks;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Deletes {@code change_log} entries older than the retention period. Entries go in bounded batches in
+ * feed order, each batch in its own short transaction that also moves the pruned position, so triggers
+ * writing new entries are never blocked for long. The retention row is claimed with
+ * {@code FOR UPDATE SKIP LOCKED}, so only one instance prunes at a time. Feed tokens below the pruned
+ * position are rejected by {@code GET /changes} with a resync signal.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "change-log.retention.enabled", havingValue = "true", matchIfMissing = true)
+public class ChangeLogPruner implements MeterBinder {
+
+    private final ChangeLogJdbcRepository changeLogJdbcRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${change-log.retention.period:P7D}")
+    private Duration retention;
+
+    @Value("${change-log.retention.batch-size:5000}")
+    private int batchSize;
+
+    @Value("${change-log.retention.max-batches-per-run:200}")
+    private int maxBatchesPerRun;
+
+    @Value("${change-log.retention.batch-pause:PT0.05S}")
+    private Duration batchPause;
+
+    private final AtomicLong pruned = new AtomicLong();
+
+    private final AtomicLong batches = new AtomicLong();
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("change.log.pruned", pruned, AtomicLong::get)
+                .description("Change feed entries deleted after the retention period")
+                .register(registry);
+        FunctionCounter.builder("change.log.prune.batches", batches, AtomicLong::get)
+                .description("Change feed prune batches committed")
+                .register(registry);
+    }
+
+    @Scheduled(fixedDelayString = "${change-log.retention.interval:PT10M}",
+            initialDelayString = "${change-log.retention.initial-delay:PT1M}")
+    public void run() {
+        pruneBefore(Instant.now().minus(retention));
+    }
+
+    /**
+     * Deletes entries written before {@code cutoff}, at most {@code max-batches-per-run} batches.
+     *
+     * @return number of deleted entries
+     */
+    public long pruneBefore(Instant cutoff) {
+        long startedAt = System.nanoTime();
+        long total = 0;
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            Integer deleted = transactionTemplate.execute(status -> pruneBatch(cutoff));
+            int deletedInBatch = deleted != null ? deleted : 0;
+            total += deletedInBatch;
+            if (deletedInBatch < batchSize) {
+                break;
+            }
+            if (!pause()) {
+                break;
+            }
+        }
+        if (total > 0) {
+            log.info("Pruned {} change log entries older than {} in {} ms", total, cutoff,
+                    Duration.ofNanos(System.nanoTime() - startedAt).toMillis());
+        }
+        return total;
+    }
+
+    private int pruneBatch(Instant cutoff) {
+        if (changeLogJdbcRepository.claimPrunedPosition().isEmpty()) {
+            return 0;
+        }
+        int count = changeLogJdbcRepository.pruneBatch(cutoff, batchSize);
+        if (count > 0) {
+            TransactionCallbacks.afterCommit(() -> {
+                pruned.addAndGet(count);
+                batches.incrementAndGet();
+            });
+        }
+        return count;
+    }
+
+    private boolean pause() {
+        if (batchPause.isZero()) {
+            return true;
+        }
+        try {
+            Thread.sleep(batchPause);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -7,6 +7,7 @@ import max.iv.usersubscriptionservice.models.User;
 import max.iv.usersubscriptionservice.models.enums.ServiceName;
 import max.iv.usersubscriptionservice.repository.SubscriptionRepository;
 import max.iv.usersubscriptionservice.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.ApplicationArguments;
 import org.springframework.boot.ApplicationRunner;
 import org.springframework.stereotype.Component;
@@ -24,9 +25,24 @@ public class DataInitializer implements ApplicationRunner {
 
     private final SubscriptionRepository subscriptionRepository;
 
+    // Проверяется при запуске, а не условием бина: в AOT-сборке условия фиксируются на этапе сборки
+    @Value("${app.seed.enabled:true}")
+    private boolean seedEnabled;
+
+    // demo — несколько фиксированных пользователей; synthetic — SyntheticDataGenerator
+    @Value("${app.seed.mode:demo}")
+    private String seedMode;
+
     @Override
     @Transactional
     public void run(ApplicationArguments args) throws Exception {
+        if (!seedEnabled) {
+            log.info("Data initialization disabled (app.seed.enabled=false)");
+            return;
+        }
+        if (!"demo".equals(seedMode)) {
+            return;
+        }
         log.info("Starting data initialization...");
 
         if (userRepository.count() == 0) {
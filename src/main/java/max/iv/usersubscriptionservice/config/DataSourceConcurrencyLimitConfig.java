@@ -0,0 +1,56 @@
+package max.iv.usersubscriptionservice.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Active with virtual threads: wraps every Hikari pool in a {@link ConcurrencyLimitedDataSource}
+ * sized to the pool, so request threads queue on a semaphore instead of inside Hikari.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class DataSourceConcurrencyLimitConfig {
+
+    @Bean
+    public static BeanPostProcessor concurrencyLimitingDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource hikariDataSource) {
+                    int permits = hikariDataSource.getMaximumPoolSize();
+                    log.info("Limiting concurrent access to data source '{}' to {} connections", beanName, permits);
+                    return new ConcurrencyLimitedDataSource(hikariDataSource, permits,
+                            hikariDataSource.getConnectionTimeout());
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public MeterBinder dataSourceConcurrencyLimitMetrics(Map<String, DataSource> dataSources) {
+        // С репликой ограничены оба пула, метрики различаются тегом name
+        return registry -> dataSources.forEach((name, dataSource) -> {
+            if (dataSource instanceof ConcurrencyLimitedDataSource limited) {
+                Gauge.builder("jdbc.connections.limit.available", limited, ConcurrencyLimitedDataSource::getAvailablePermits)
+                        .description("Free permits of the JDBC concurrency limit")
+                        .tag("name", name)
+                        .register(registry);
+                Gauge.builder("jdbc.connections.limit.pending", limited, ConcurrencyLimitedDataSource::getQueueLength)
+                        .description("Threads waiting for a permit of the JDBC concurrency limit")
+                        .tag("name", name)
+                        .register(registry);
+            }
+        });
+    }
+}
@@ -0,0 +1,25 @@
+package max.iv.usersubscriptionservice.config;
+
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.HibernateQueryMetrics;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Metrics not covered by auto-configuration. Spring Boot already publishes
+ * {@code http.server.requests}, {@code spring.data.repository.invocations}, {@code hikaricp.*}
+ * and aggregated {@code hibernate.*} statistics; this adds a {@code hibernate.query} timer per HQL/SQL
+ * query string, so a slow repository method can be traced to the statement behind it.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public MeterBinder hibernateQueryMetrics(EntityManagerFactory entityManagerFactory) {
+        return registry -> new HibernateQueryMetrics(entityManagerFactory.unwrap(SessionFactory.class),
+                "entityManagerFactory", Tags.empty()).bindTo(registry);
+    }
+}
@@ -0,0 +1,43 @@
+package max.iv.usersubscriptionservice.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * One-shot mode of the {@code migrate} profile ({@code app.migrate.exit-when-ready=true}). Liquibase runs
+ * during context refresh and {@link DataInitializer} before the application is ready, so by then the job
+ * is done and the process exits instead of warming caches and serving traffic.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MigrationJob {
+
+    private final ConfigurableApplicationContext context;
+
+    // Свойство, а не @Profile: в AOT- и native-образах профили фиксируются на этапе сборки
+    @Value("${app.migrate.exit-when-ready:false}")
+    private boolean exitWhenReady;
+
+    // Раньше остальных слушателей ApplicationReadyEvent: прогрев счетчиков и фильтров разовому запуску не нужен
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @EventListener(ApplicationReadyEvent.class)
+    public void exit() {
+        if (!exitWhenReady) {
+            return;
+        }
+        log.info("Migrations and seed data applied in {} ms, exiting",
+                ManagementFactory.getRuntimeMXBean().getUptime());
+        System.exit(SpringApplication.exit(context));
+    }
+}
@@ -0,0 +1,28 @@
+package max.iv.usersubscriptionservice.config;
+
+import max.iv.usersubscriptionservice.dto.SubscriptionResponseDto;
+import max.iv.usersubscriptionservice.dto.UserResponseDto;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+
+/**
+ * Reflection hints for the native image that AOT processing cannot infer: Hibernate instantiates
+ * the DTOs of JPQL {@code SELECT new ...} projections through their constructors.
+ */
+@Configuration
+@ImportRuntimeHints(NativeHintsConfig.ProjectionHints.class)
+public class NativeHintsConfig {
+
+    static class ProjectionHints implements RuntimeHintsRegistrar {
+
+        @Override
+        public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+            hints.reflection()
+                    .registerType(UserResponseDto.class, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS)
+                    .registerType(SubscriptionResponseDto.class, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+        }
+    }
+}
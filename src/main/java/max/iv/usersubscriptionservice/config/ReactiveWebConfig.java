@@ -0,0 +1,31 @@
+package max.iv.usersubscriptionservice.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.web.ReactivePageableHandlerMethodArgumentResolver;
+import org.springframework.data.web.ReactiveSortHandlerMethodArgumentResolver;
+import org.springframework.web.reactive.config.WebFluxConfigurer;
+import org.springframework.web.reactive.result.method.annotation.ArgumentResolverConfigurer;
+
+/**
+ * WebFlux setup for the {@code reactive} profile. Tomcat stays on the classpath for the servlet mode and
+ * would otherwise be picked as the reactive server too, so Netty is declared explicitly. Spring Boot
+ * registers {@code Pageable}/{@code Sort} resolvers only for MVC; the reactive ones are added here.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveWebConfig implements WebFluxConfigurer {
+
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+
+    @Override
+    public void configureArgumentResolvers(ArgumentResolverConfigurer configurer) {
+        configurer.addCustomResolver(
+                new ReactivePageableHandlerMethodArgumentResolver(new ReactiveSortHandlerMethodArgumentResolver()));
+    }
+}
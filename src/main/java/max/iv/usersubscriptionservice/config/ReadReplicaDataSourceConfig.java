@@ -0,0 +1,81 @@
+package max.iv.usersubscriptionservice.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Active when {@code datasource.replica.url} is set: read-only transactions go to the replica,
+ * everything else (and reads while the replica is unhealthy or lagging) to the primary.
+ * Both pools are plain Hikari pools, so they get the same metrics and wrapping as the single
+ * auto-configured pool.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "datasource.replica.url")
+public class ReadReplicaDataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties("datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(
+            @Value("${datasource.replica.url}") String url,
+            @Value("${datasource.replica.username:${spring.datasource.username}}") String username,
+            @Value("${datasource.replica.password:${spring.datasource.password}}") String password) {
+        log.info("Read-only transactions will be routed to the replica at {}", url);
+        HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .url(url)
+                .username(username)
+                .password(password)
+                .build();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        // Недоступная реплика не должна держать запрос: после таймаута чтение уходит на primary
+        dataSource.setConnectionTimeout(Duration.ofSeconds(2).toMillis());
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaHealthMonitor replicaHealthMonitor(
+            @Qualifier("replicaDataSource") DataSource replicaDataSource,
+            @Value("${datasource.replica.max-lag:PT5S}") Duration maxLag,
+            @Value("${datasource.replica.health-check-timeout:PT2S}") Duration checkTimeout) {
+        return new ReplicaHealthMonitor(replicaDataSource, maxLag, checkTimeout);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                 @Qualifier("replicaDataSource") DataSource replicaDataSource,
+                                 ReplicaHealthMonitor replicaHealthMonitor) {
+        ReadWriteRoutingDataSource routingDataSource = new ReadWriteRoutingDataSource(replicaHealthMonitor);
+        routingDataSource.setTargetDataSources(Map.of(
+                ReadWriteRoutingDataSource.Route.PRIMARY, primaryDataSource,
+                ReadWriteRoutingDataSource.Route.REPLICA, replicaDataSource));
+        routingDataSource.setDefaultTargetDataSource(primaryDataSource);
+        routingDataSource.afterPropertiesSet();
+        // Физическое соединение берется на первом запросе, когда транзакция уже помечена read-only
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+}
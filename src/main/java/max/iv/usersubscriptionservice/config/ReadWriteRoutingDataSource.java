@@ -0,0 +1,68 @@
+package max.iv.usersubscriptionservice.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Sends connections of read-only transactions to the replica while {@link ReplicaHealthMonitor}
+ * reports it usable, everything else to the primary. Must sit behind a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}, so the target is
+ * chosen on the first statement, after the transaction has been marked read-only.
+ */
+@Slf4j
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    public enum Route {
+        PRIMARY,
+        REPLICA
+    }
+
+    private final ReplicaHealthMonitor replicaHealth;
+
+    public ReadWriteRoutingDataSource(ReplicaHealthMonitor replicaHealth) {
+        this.replicaHealth = replicaHealth;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return TransactionSynchronizationManager.isCurrentTransactionReadOnly() && replicaHealth.isAvailable()
+                ? Route.REPLICA
+                : Route.PRIMARY;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (determineCurrentLookupKey() != Route.REPLICA) {
+            return super.getConnection();
+        }
+        try {
+            return replica().getConnection();
+        } catch (SQLException e) {
+            // Реплика недоступна — читаем с primary, не дожидаясь следующей проверки монитора
+            replicaHealth.markUnavailable(e);
+            return getResolvedDefaultDataSource().getConnection();
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        if (determineCurrentLookupKey() != Route.REPLICA) {
+            return super.getConnection(username, password);
+        }
+        try {
+            return replica().getConnection(username, password);
+        } catch (SQLException e) {
+            replicaHealth.markUnavailable(e);
+            return getResolvedDefaultDataSource().getConnection(username, password);
+        }
+    }
+
+    private DataSource replica() {
+        return getResolvedDataSources().get(Route.REPLICA);
+    }
+}
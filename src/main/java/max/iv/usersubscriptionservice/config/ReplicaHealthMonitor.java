@@ -0,0 +1,96 @@
+package max.iv.usersubscriptionservice.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Periodically checks that the replica answers and how far its replay lags behind the primary.
+ * The replica is used only while it answers and the lag stays within {@code max-lag}; until the
+ * first successful check all reads go to the primary.
+ */
+@Slf4j
+public class ReplicaHealthMonitor implements MeterBinder {
+
+    // Реплика, догнавшая primary, не проигрывает транзакции, и now() - pg_last_xact_replay_timestamp() растет
+    // без реального отставания, поэтому при совпадении принятого и проигранного LSN отставание считается нулевым
+    private static final String LAG_SQL =
+            "SELECT CASE WHEN NOT pg_is_in_recovery() THEN 0 " +
+            "WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 " +
+            "ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 0) END";
+
+    private final JdbcTemplate replicaJdbcTemplate;
+
+    private final Duration maxLag;
+
+    private volatile boolean available;
+
+    private volatile double lagSeconds = -1;
+
+    public ReplicaHealthMonitor(DataSource replicaDataSource, Duration maxLag, Duration checkTimeout) {
+        this.replicaJdbcTemplate = new JdbcTemplate(replicaDataSource);
+        this.replicaJdbcTemplate.setQueryTimeout((int) Math.max(1, checkTimeout.toSeconds()));
+        this.maxLag = maxLag;
+    }
+
+    public boolean isAvailable() {
+        return available;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("datasource.replica.available", this, monitor -> monitor.available ? 1 : 0)
+                .description("Whether read-only transactions are routed to the replica")
+                .register(registry);
+        Gauge.builder("datasource.replica.lag", this, monitor -> monitor.lagSeconds)
+                .description("Replay lag of the replica measured by the last check, -1 if unknown")
+                .baseUnit("seconds")
+                .register(registry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${datasource.replica.health-check-interval:PT5S}",
+            initialDelayString = "${datasource.replica.health-check-interval:PT5S}")
+    public void check() {
+        try {
+            Double lag = replicaJdbcTemplate.queryForObject(LAG_SQL, Double.class);
+            lagSeconds = lag != null ? lag : 0;
+            if (lagSeconds * 1000 > maxLag.toMillis()) {
+                update(false, "replay lag " + lagSeconds + "s exceeds " + maxLag);
+            } else {
+                update(true, "replay lag " + lagSeconds + "s");
+            }
+        } catch (DataAccessException e) {
+            lagSeconds = -1;
+            update(false, e.getMessage());
+        }
+    }
+
+    /**
+     * Stops routing to the replica until the next successful check.
+     */
+    public void markUnavailable(Exception cause) {
+        update(false, cause.getMessage());
+    }
+
+    private void update(boolean usable, String reason) {
+        boolean previous = available;
+        available = usable;
+        if (previous != usable) {
+            if (usable) {
+                log.info("Routing read-only transactions to the replica, {}", reason);
+            } else {
+                log.warn("Routing read-only transactions to the primary, replica unusable: {}", reason);
+            }
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package max.iv.usersubscriptionservice.controller;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import max.iv.usersubscriptionservice.dto.CacheRegionStatisticsDto;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Slf4j
+@RestController
+@RequestMapping("/internal/cache")
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "spring.jpa.properties.hibernate.cache.use_second_level_cache", havingValue = "true")
+public class CacheStatisticsController {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    @GetMapping("/statistics")
+    public ResponseEntity<List<CacheRegionStatisticsDto>> getCacheStatistics() {
+        log.info("Received request to get second-level cache statistics");
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        List<CacheRegionStatisticsDto> regions = Arrays.stream(statistics.getSecondLevelCacheRegionNames())
+                .sorted()
+                .map(region -> toDto(region, statistics.getDomainDataRegionStatistics(region)))
+                .collect(Collectors.toList());
+        return ResponseEntity.ok(regions);
+    }
+
+    private CacheRegionStatisticsDto toDto(String region, CacheRegionStatistics regionStatistics) {
+        long hits = regionStatistics.getHitCount();
+        long misses = regionStatistics.getMissCount();
+        long lookups = hits + misses;
+        return new CacheRegionStatisticsDto(
+                region,
+                hits,
+                misses,
+                regionStatistics.getPutCount(),
+                lookups > 0 ? (double) hits / lookups : 0.0
+        );
+    }
+}
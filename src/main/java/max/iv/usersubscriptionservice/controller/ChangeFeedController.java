@@ -0,0 +1,32 @@
+package max.iv.usersubscriptionservice.controller;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import max.iv.usersubscriptionservice.dto.ChangeFeedDto;
+import max.iv.usersubscriptionservice.service.ChangeFeedService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@Slf4j
+@RestController
+@RequestMapping("/changes")
+@RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class ChangeFeedController {
+
+    private final ChangeFeedService changeFeedService;
+
+    @GetMapping
+    public ResponseEntity<ChangeFeedDto> getChanges(
+            @RequestParam(defaultValue = "") String since,
+            @RequestParam(defaultValue = "100") int limit) {
+        log.info("Received request to get changes, limit: {}", limit);
+        ChangeFeedDto feed = changeFeedService.getChanges(since, limit);
+        log.info("Returning {} changes, has more: {}, status 200 OK", feed.changes().size(), feed.hasMore());
+        return ResponseEntity.ok(feed);
+    }
+}
@@ -0,0 +1,55 @@
+package max.iv.usersubscriptionservice.controller;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import max.iv.usersubscriptionservice.dto.SubscriptionResponseDto;
+import max.iv.usersubscriptionservice.dto.TopSubscriptionDto;
+import max.iv.usersubscriptionservice.service.ReactiveReadService;
+import max.iv.usersubscriptionservice.service.SubscriptionService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Read endpoints of {@link SubscriptionController} on WebFlux (profile {@code reactive}).
+ */
+@Slf4j
+@RestController
+@RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveSubscriptionController {
+
+    private final ReactiveReadService reactiveReadService;
+
+    private final SubscriptionService subscriptionService;
+
+    @Value("${subscriptions.top.cache-max-age:PT30S}")
+    private Duration topCacheMaxAge;
+
+    @GetMapping("/users/{userId}/subscriptions")
+    public Mono<List<SubscriptionResponseDto>> getUserSubscriptions(@PathVariable UUID userId) {
+        log.info("Received request to get subscriptions for user ID: {}", userId);
+        return reactiveReadService.getUserSubscriptions(userId);
+    }
+
+    @GetMapping("/subscriptions/top")
+    public ResponseEntity<List<TopSubscriptionDto>> getTopSubscriptions(
+            @RequestParam(required = false) Integer limit) {
+        log.info("Received request to get top popular subscriptions, limit: {}", limit);
+        // Рейтинг считается из счётчиков в памяти, без обращения к БД, поэтому ответ отдаётся синхронно
+        List<TopSubscriptionDto> topSubscriptions = subscriptionService.getTopPopularSubscriptions(limit);
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(topCacheMaxAge).cachePublic())
+                .body(topSubscriptions);
+    }
+}
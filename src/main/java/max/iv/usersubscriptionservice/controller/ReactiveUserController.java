@@ -0,0 +1,62 @@
+package max.iv.usersubscriptionservice.controller;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import max.iv.usersubscriptionservice.dto.UserResponseDto;
+import max.iv.usersubscriptionservice.dto.UserWithSubscriptionNamesDto;
+import max.iv.usersubscriptionservice.pagination.CountMode;
+import max.iv.usersubscriptionservice.service.ReactiveReadService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+
+/**
+ * Read endpoints of {@link UserController} on WebFlux (profile {@code reactive}).
+ */
+@Slf4j
+@RestController
+@RequestMapping("/users")
+@RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveUserController {
+
+    private final ReactiveReadService reactiveReadService;
+
+    @Value("${users.page.count-mode:exact}")
+    private CountMode defaultCountMode;
+
+    @GetMapping("/{id}")
+    public Mono<UserResponseDto> getUserById(@PathVariable UUID id) {
+        log.info("Received request to get user by ID: {}", id);
+        return reactiveReadService.getUserById(id);
+    }
+
+    @GetMapping("/{id}/with-subscriptions")
+    public Mono<UserWithSubscriptionNamesDto> getUserByIdWithSubscriptions(@PathVariable UUID id) {
+        log.info("Received request to get user by ID with subscriptions: {}", id);
+        return reactiveReadService.getUserByIdWithSubscriptions(id);
+    }
+
+    @GetMapping
+    public Mono<?> getAllUsersWithSubscriptions(
+            @PageableDefault(size = 10, sort = "username") Pageable pageable,
+            @RequestParam(name = "count", required = false) String count) {
+        CountMode countMode = count != null ? CountMode.fromParameter(count) : defaultCountMode;
+        log.info("Received request to get all users with their subscriptions. Pageable: {}, count mode: {}",
+                pageable, countMode);
+        return switch (countMode) {
+            case NONE -> reactiveReadService.getUsersWithSubscriptionsSlice(pageable);
+            case ESTIMATED -> reactiveReadService.getAllUsersWithEstimatedCount(pageable);
+            case EXACT -> reactiveReadService.getAllUsersWithSubscriptions(pageable);
+        };
+    }
+}
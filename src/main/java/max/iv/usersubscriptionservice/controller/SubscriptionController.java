@@ -3,10 +3,21 @@ package max.iv.usersubscriptionservice.controller;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import max.iv.usersubscriptionservice.dto.CursorPageDto;
+import max.iv.usersubscriptionservice.dto.SubscriptionBatchItemDto;
+import max.iv.usersubscriptionservice.dto.SubscriptionBatchResultDto;
 import max.iv.usersubscriptionservice.dto.SubscriptionCreateRequestDto;
 import max.iv.usersubscriptionservice.dto.SubscriptionResponseDto;
 import max.iv.usersubscriptionservice.dto.TopSubscriptionDto;
+import max.iv.usersubscriptionservice.dto.UserVersionDto;
+import max.iv.usersubscriptionservice.models.enums.ServiceName;
 import max.iv.usersubscriptionservice.service.SubscriptionService;
+import max.iv.usersubscriptionservice.service.UserService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -14,10 +25,14 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import java.net.URI;
+import java.time.Duration;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.UUID;
 
@@ -25,10 +40,16 @@ import java.util.UUID;
 @RestController
 @RequestMapping()
 @RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class SubscriptionController {
 
     private final SubscriptionService subscriptionService;
 
+    private final UserService userService;
+
+    @Value("${subscriptions.top.cache-max-age:PT30S}")
+    private Duration topCacheMaxAge;
+
     @PostMapping("/users/{userId}/subscriptions")
     public ResponseEntity<SubscriptionResponseDto> addSubscription(
             @PathVariable UUID userId,
@@ -47,12 +68,27 @@ public class SubscriptionController {
         return ResponseEntity.created(location).body(createdSubscription);
     }
 
+    @PostMapping("/subscriptions:batch")
+    public ResponseEntity<SubscriptionBatchResultDto> addSubscriptionsInBatch(
+            @RequestBody List<SubscriptionBatchItemDto> items) {
+        log.info("Received request to add {} subscriptions in batch", items.size());
+        SubscriptionBatchResultDto result = subscriptionService.addSubscriptionsInBatch(items);
+        log.info("Batch processed: {} created, {} failed, returning 200 OK", result.created(), result.failed());
+        return ResponseEntity.ok(result);
+    }
+
     @GetMapping("/users/{userId}/subscriptions")
-    public ResponseEntity<List<SubscriptionResponseDto>> getUserSubscriptions(@PathVariable UUID userId) {
+    public ResponseEntity<List<SubscriptionResponseDto>> getUserSubscriptions(@PathVariable UUID userId,
+                                                                              WebRequest request) {
         log.info("Received request to get subscriptions for user ID: {}", userId);
+        String eTag = userService.getUserVersion(userId).map(UserVersionDto::subscriptionsETag).orElse(null);
+        if (eTag != null && request.checkNotModified(eTag)) {
+            log.info("Subscriptions for user ID: {} not modified, returning 304 Not Modified", userId);
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
         List<SubscriptionResponseDto> subscriptions = subscriptionService.getUserSubscriptions(userId);
         log.info("Found {} subscriptions for user ID: {}, returning 200 OK", subscriptions.size(), userId);
-        return ResponseEntity.ok(subscriptions);
+        return ResponseEntity.ok().eTag(eTag).body(subscriptions);
     }
 
     @DeleteMapping("/users/{userId}/subscriptions/{subscriptionId}")
@@ -65,11 +101,32 @@ public class SubscriptionController {
         return ResponseEntity.noContent().build();
     }
 
+    @GetMapping("/subscriptions")
+    public ResponseEntity<CursorPageDto<SubscriptionResponseDto>> searchSubscriptions(
+            @RequestParam(required = false) ServiceName serviceName,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate activeOn,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startedAfter,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endsBefore,
+            @RequestParam(defaultValue = "") String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        log.info("Received request to search {} subscriptions, active on: {}, started after: {}, ends before: {}, size: {}",
+                serviceName, activeOn, startedAfter, endsBefore, size);
+        CursorPageDto<SubscriptionResponseDto> subscriptionsPage = subscriptionService.searchSubscriptions(
+                serviceName, activeOn, startedAfter, endsBefore, cursor, size);
+        log.info("Returning {} subscriptions, has next page: {}, status 200 OK",
+                subscriptionsPage.content().size(), subscriptionsPage.nextCursor() != null);
+        return ResponseEntity.ok(subscriptionsPage);
+    }
+
     @GetMapping("/subscriptions/top")
-    public ResponseEntity<List<TopSubscriptionDto>> getTopSubscriptions() {
-        log.info("Received request to get top 3 popular subscriptions");
-        List<TopSubscriptionDto> topSubscriptions = subscriptionService.getTop3PopularSubscriptions();
+    public ResponseEntity<List<TopSubscriptionDto>> getTopSubscriptions(
+            @RequestParam(required = false) Integer limit) {
+        log.info("Received request to get top popular subscriptions, limit: {}", limit);
+        List<TopSubscriptionDto> topSubscriptions = subscriptionService.getTopPopularSubscriptions(limit);
         log.info("Returning {} top subscriptions, status 200 OK", topSubscriptions.size());
-        return ResponseEntity.ok(topSubscriptions);
+        // Рейтинг и так приближённый, поэтому клиентам и прокси разрешено держать его в кэше
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(topCacheMaxAge).cachePublic())
+                .body(topSubscriptions);
     }
 }
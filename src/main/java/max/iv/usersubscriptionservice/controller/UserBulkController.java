@@ -0,0 +1,47 @@
+package max.iv.usersubscriptionservice.controller;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import max.iv.usersubscriptionservice.dto.UserBulkImportResultDto;
+import max.iv.usersubscriptionservice.dto.UserCreateRequestDto;
+import max.iv.usersubscriptionservice.service.UserBulkImportService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+@Slf4j
+@RestController
+@RequestMapping()
+@RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class UserBulkController {
+
+    private final UserBulkImportService userBulkImportService;
+
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Accepts either a JSON array or newline-delimited JSON objects. The body is read
+     * incrementally, so the request never has to fit in memory.
+     */
+    @PostMapping(value = "/users:bulk",
+            consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<UserBulkImportResultDto> importUsers(InputStream body) throws IOException {
+        log.info("Received request to import users in bulk");
+        try (MappingIterator<UserCreateRequestDto> users =
+                     objectMapper.readerFor(UserCreateRequestDto.class).readValues(body)) {
+            UserBulkImportResultDto result = userBulkImportService.importUsers(users);
+            log.info("Bulk import processed {} users: {} created, {} failed, returning 200 OK",
+                    result.received(), result.created(), result.failed());
+            return ResponseEntity.ok(result);
+        }
+    }
+}
@@ -1,18 +1,32 @@
 package max.iv.usersubscriptionservice.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import max.iv.usersubscriptionservice.dto.CursorPageDto;
+import max.iv.usersubscriptionservice.dto.SliceDto;
+import max.iv.usersubscriptionservice.dto.UserAvailabilityDto;
 import max.iv.usersubscriptionservice.dto.UserCreateRequestDto;
 import max.iv.usersubscriptionservice.dto.UserResponseDto;
 import max.iv.usersubscriptionservice.dto.UserUpdateRequestDto;
+import max.iv.usersubscriptionservice.dto.UserVersionDto;
 import max.iv.usersubscriptionservice.dto.UserWithSubscriptionNamesDto;
 import max.iv.usersubscriptionservice.exception.ResourceNotFoundException;
 import max.iv.usersubscriptionservice.models.User;
+import max.iv.usersubscriptionservice.pagination.CountMode;
 import max.iv.usersubscriptionservice.service.UserService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.data.web.SortDefault;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -21,10 +35,19 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.net.URI;
+import java.time.Duration;
+import java.util.Arrays;
 import java.util.List;
 import java.util.UUID;
 
@@ -32,10 +55,23 @@ import java.util.UUID;
 @RestController
 @RequestMapping("/users")
 @RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class UserController {
 
+    private static final int EXPORT_BUFFER_SIZE = 64 * 1024;
+
     private final UserService userService;
 
+    private final ObjectMapper objectMapper;
+
+    private final AsyncTaskExecutor applicationTaskExecutor;
+
+    @Value("${users.export.timeout:PT1H}")
+    private Duration exportTimeout;
+
+    @Value("${users.page.count-mode:exact}")
+    private CountMode defaultCountMode;
+
     @PostMapping
     public ResponseEntity<UserResponseDto> createUser(@Valid @RequestBody UserCreateRequestDto userCreateDto) {
         log.info("Received request to create user with username: {}", userCreateDto.username());
@@ -52,11 +88,17 @@ public class UserController {
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<UserResponseDto> getUserById(@PathVariable UUID id) {
+    public ResponseEntity<UserResponseDto> getUserById(@PathVariable UUID id, WebRequest request) {
         log.info("Received request to get user by ID: {}", id);
+        // ETag считается до чтения тела: при совпадении с If-None-Match пользователь не загружается
+        String eTag = userService.getUserVersion(id).map(UserVersionDto::userETag).orElse(null);
+        if (eTag != null && request.checkNotModified(eTag)) {
+            log.info("User with ID: {} not modified, returning 304 Not Modified", id);
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
         UserResponseDto user = userService.getUserById(id);
         log.info("User found with ID: {}, returning 200 OK", id);
-        return ResponseEntity.ok(user); // Возвращаем 200 OK
+        return ResponseEntity.ok().eTag(eTag).body(user); // Возвращаем 200 OK
     }
 
     @PutMapping("/{id}")
@@ -77,20 +119,113 @@ public class UserController {
     }
 
     @GetMapping
-    public ResponseEntity<Page<UserWithSubscriptionNamesDto>> getAllUsersWithSubscriptions(
-            @PageableDefault(size = 10, sort = "username") Pageable pageable) {
-        log.info("Received request to get all users with their subscriptions. Pageable: {}", pageable);
-        Page<UserWithSubscriptionNamesDto> usersPage = userService.getAllUsersWithSubscriptions(pageable);
+    public ResponseEntity<?> getAllUsersWithSubscriptions(
+            @PageableDefault(size = 10, sort = "username") Pageable pageable,
+            @RequestParam(name = "count", required = false) String count) {
+        CountMode countMode = count != null ? CountMode.fromParameter(count) : defaultCountMode;
+        log.info("Received request to get all users with their subscriptions. Pageable: {}, count mode: {}",
+                pageable, countMode);
+        if (countMode == CountMode.NONE) {
+            SliceDto<UserWithSubscriptionNamesDto> usersSlice = userService.getUsersWithSubscriptionsSlice(pageable);
+            log.info("Returning slice {} of {} users with their subscriptions, has next page: {}, status 200 OK",
+                    usersSlice.page(), usersSlice.content().size(), usersSlice.hasNext());
+            return ResponseEntity.ok(usersSlice);
+        }
+        Page<UserWithSubscriptionNamesDto> usersPage = countMode == CountMode.ESTIMATED
+                ? userService.getAllUsersWithEstimatedCount(pageable)
+                : userService.getAllUsersWithSubscriptions(pageable);
         log.info("Returning page {} of {} users with their subscriptions, status 200 OK",
                 usersPage.getNumber(), usersPage.getNumberOfElements());
         return ResponseEntity.ok(usersPage);
     }
 
+    @GetMapping(params = "cursor")
+    public ResponseEntity<CursorPageDto<UserWithSubscriptionNamesDto>> getUsersWithSubscriptionsByCursor(
+            @RequestParam(defaultValue = "") String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @SortDefault(sort = "username") Sort sort) {
+        log.info("Received request to get users with their subscriptions by cursor, size: {}, sort: {}", size, sort);
+        CursorPageDto<UserWithSubscriptionNamesDto> usersPage =
+                userService.getUsersWithSubscriptionsByCursor(cursor, sort, size);
+        log.info("Returning {} users with their subscriptions, has next page: {}, status 200 OK",
+                usersPage.content().size(), usersPage.nextCursor() != null);
+        return ResponseEntity.ok(usersPage);
+    }
+
+    @GetMapping("/availability")
+    public ResponseEntity<UserAvailabilityDto> checkAvailability(
+            @RequestParam(required = false) String username,
+            @RequestParam(required = false) String email) {
+        log.info("Received request to check availability of username: {}, email: {}", username, email);
+        UserAvailabilityDto availability = userService.checkAvailability(username, email);
+        return ResponseEntity.ok(availability);
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<ResponseBodyEmitter> exportUsersWithSubscriptions() {
+        log.info("Received request to export all users with their subscriptions");
+        ObjectWriter writer = objectMapper.writerFor(UserWithSubscriptionNamesDto.class);
+        // Длинный таймаут только у выгрузки; остальные асинхронные запросы живут с таймаутом по умолчанию
+        ResponseBodyEmitter emitter = new ResponseBodyEmitter(exportTimeout.toMillis());
+        // Ответ уже начат, поэтому по таймауту поток просто закрывается, а выгрузка прерывается на следующей записи
+        emitter.onTimeout(() -> {
+            log.warn("Export timed out after {}", exportTimeout);
+            emitter.complete();
+        });
+        applicationTaskExecutor.execute(() -> {
+            try (OutputStream output = new BufferedOutputStream(new EmitterOutputStream(emitter), EXPORT_BUFFER_SIZE)) {
+                long exported = userService.exportUsersWithSubscriptions(user -> {
+                    try {
+                        output.write(writer.writeValueAsBytes(user));
+                        output.write('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                output.flush();
+                emitter.complete();
+                log.info("Export finished, {} users written", exported);
+            } catch (IOException | RuntimeException e) {
+                log.warn("Export aborted: {}", e.toString());
+                emitter.completeWithError(e);
+            }
+        });
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(emitter);
+    }
+
      @GetMapping("/{id}/with-subscriptions")
-     public ResponseEntity<UserWithSubscriptionNamesDto> getUserByIdWithSubscriptions(@PathVariable UUID id) {
+     public ResponseEntity<UserWithSubscriptionNamesDto> getUserByIdWithSubscriptions(@PathVariable UUID id,
+                                                                                     WebRequest request) {
          log.info("Received request to get user by ID with subscriptions: {}", id);
+         String eTag = userService.getUserVersion(id).map(UserVersionDto::userWithSubscriptionsETag).orElse(null);
+         if (eTag != null && request.checkNotModified(eTag)) {
+             log.info("User with ID: {} and subscriptions not modified, returning 304 Not Modified", id);
+             return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+         }
          UserWithSubscriptionNamesDto user = userService.getUserByIdWithSubscriptions(id);
          log.info("User found with ID: {}, returning 200 OK", id);
-         return ResponseEntity.ok(user);
+         return ResponseEntity.ok().eTag(eTag).body(user);
      }
+
+    /**
+     * Sends each buffered block of the export as one emitter chunk.
+     */
+    private static final class EmitterOutputStream extends OutputStream {
+
+        private final ResponseBodyEmitter emitter;
+
+        private EmitterOutputStream(ResponseBodyEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            emitter.send(Arrays.copyOfRange(bytes, offset, offset + length), MediaType.APPLICATION_NDJSON);
+        }
+    }
 }
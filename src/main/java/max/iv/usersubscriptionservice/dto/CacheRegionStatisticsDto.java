@@ -0,0 +1,11 @@
+package max.iv.usersubscriptionservice.dto;
+
+public record CacheRegionStatisticsDto(
+
+        String region,
+        long hitCount,
+        long missCount,
+        long putCount,
+        double hitRatio
+) {
+}
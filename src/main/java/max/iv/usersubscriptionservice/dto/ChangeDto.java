@@ -0,0 +1,23 @@
+package max.iv.usersubscriptionservice.dto;
+
+import max.iv.usersubscriptionservice.models.enums.ChangeEntityType;
+import max.iv.usersubscriptionservice.models.enums.ChangeOperation;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * One change-feed entry. For {@code CREATED}/{@code UPDATED} the current state of the entity is attached
+ * ({@code user} or {@code subscription}); it is null for tombstones and for entities deleted since,
+ * whose {@code DELETED} entry follows later in the feed.
+ */
+public record ChangeDto(
+
+        ChangeEntityType entityType,
+        UUID entityId,
+        ChangeOperation operation,
+        LocalDateTime changedAt,
+        UserResponseDto user,
+        SubscriptionResponseDto subscription
+) {
+}
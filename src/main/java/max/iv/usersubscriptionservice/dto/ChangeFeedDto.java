@@ -0,0 +1,15 @@
+package max.iv.usersubscriptionservice.dto;
+
+import java.util.List;
+
+/**
+ * @param nextToken pass as {@code since} on the next request; equals the request token when nothing new is visible
+ * @param hasMore   more changes are already available after {@code nextToken}
+ */
+public record ChangeFeedDto(
+
+        List<ChangeDto> changes,
+        String nextToken,
+        boolean hasMore
+) {
+}
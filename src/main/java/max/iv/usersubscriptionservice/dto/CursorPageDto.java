@@ -0,0 +1,11 @@
+package max.iv.usersubscriptionservice.dto;
+
+import java.util.List;
+
+public record CursorPageDto<T>(
+
+        List<T> content,
+        int size,
+        String nextCursor
+) {
+}
@@ -0,0 +1,12 @@
+package max.iv.usersubscriptionservice.dto;
+
+import java.util.List;
+
+public record SliceDto<T>(
+
+        List<T> content,
+        int page,
+        int size,
+        boolean hasNext
+) {
+}
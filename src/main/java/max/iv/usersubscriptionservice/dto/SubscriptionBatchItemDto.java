@@ -0,0 +1,15 @@
+package max.iv.usersubscriptionservice.dto;
+
+import max.iv.usersubscriptionservice.models.enums.ServiceName;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+public record SubscriptionBatchItemDto(
+
+        UUID userId,
+        ServiceName serviceName,
+        LocalDate startDate,
+        LocalDate endDate
+) {
+}
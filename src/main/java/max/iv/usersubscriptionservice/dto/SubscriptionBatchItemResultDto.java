@@ -0,0 +1,23 @@
+package max.iv.usersubscriptionservice.dto;
+
+import max.iv.usersubscriptionservice.models.enums.ServiceName;
+
+import java.util.UUID;
+
+public record SubscriptionBatchItemResultDto(
+
+        int index,
+        UUID userId,
+        ServiceName serviceName,
+        Status status,
+        UUID subscriptionId,
+        String message
+) {
+
+    public enum Status {
+        CREATED,
+        INVALID,
+        USER_NOT_FOUND,
+        ALREADY_SUBSCRIBED
+    }
+}
@@ -0,0 +1,12 @@
+package max.iv.usersubscriptionservice.dto;
+
+import java.util.List;
+
+public record SubscriptionBatchResultDto(
+
+        int received,
+        int created,
+        int failed,
+        List<SubscriptionBatchItemResultDto> items
+) {
+}
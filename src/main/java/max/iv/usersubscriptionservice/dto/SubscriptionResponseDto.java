@@ -17,4 +17,12 @@ public record SubscriptionResponseDto(
         LocalDateTime updatedAt,
         UUID userId
 ) {
+
+    /**
+     * Конструктор для JPQL-проекции: отображаемое имя выводится из enum и не читается из БД.
+     */
+    public SubscriptionResponseDto(UUID id, ServiceName serviceName, LocalDate startDate, LocalDate endDate,
+                                   LocalDateTime createdAt, LocalDateTime updatedAt, UUID userId) {
+        this(id, serviceName, serviceName.getDisplayName(), startDate, endDate, createdAt, updatedAt, userId);
+    }
 }
@@ -0,0 +1,10 @@
+package max.iv.usersubscriptionservice.dto;
+
+public record UserAvailabilityDto(
+
+        String username,
+        Boolean usernameAvailable, // null, если username не проверялся
+        String email,
+        Boolean emailAvailable     // null, если email не проверялся
+) {
+}
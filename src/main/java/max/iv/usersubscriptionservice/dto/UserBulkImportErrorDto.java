@@ -0,0 +1,9 @@
+package max.iv.usersubscriptionservice.dto;
+
+public record UserBulkImportErrorDto(
+
+        int index,
+        String username,
+        String message
+) {
+}
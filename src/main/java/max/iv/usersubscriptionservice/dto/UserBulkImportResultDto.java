@@ -0,0 +1,12 @@
+package max.iv.usersubscriptionservice.dto;
+
+import java.util.List;
+
+public record UserBulkImportResultDto(
+
+        int received,
+        int created,
+        int failed,
+        List<UserBulkImportErrorDto> errors
+) {
+}
@@ -0,0 +1,37 @@
+package max.iv.usersubscriptionservice.dto;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Cheap fingerprint of a user row and of the user's subscription set, read without loading either.
+ * Adding or removing a subscription always changes {@code subscriptionCount} or {@code subscriptionIdsHash}.
+ */
+public record UserVersionDto(
+
+        Instant userUpdatedAt,
+        long subscriptionCount,
+        Instant subscriptionsUpdatedAt,
+        long subscriptionIdsHash
+) {
+
+    public String userETag() {
+        return "\"u" + micros(userUpdatedAt) + "\"";
+    }
+
+    public String subscriptionsETag() {
+        return "\"" + subscriptionsVersion() + "\"";
+    }
+
+    public String userWithSubscriptionsETag() {
+        return "\"u" + micros(userUpdatedAt) + "-" + subscriptionsVersion() + "\"";
+    }
+
+    private String subscriptionsVersion() {
+        return "s" + subscriptionCount + "-" + micros(subscriptionsUpdatedAt) + "-" + Long.toHexString(subscriptionIdsHash);
+    }
+
+    private static long micros(Instant instant) {
+        return instant == null ? 0 : ChronoUnit.MICROS.between(Instant.EPOCH, instant);
+    }
+}
@@ -0,0 +1,17 @@
+package max.iv.usersubscriptionservice.exception;
+
+import lombok.Getter;
+
+/**
+ * The change feed token points before entries that were already pruned, so deltas after it are incomplete.
+ */
+@Getter
+public class ChangeFeedTokenExpiredException extends RuntimeException {
+
+    private final String resyncToken;
+
+    public ChangeFeedTokenExpiredException(String message, String resyncToken) {
+        super(message);
+        this.resyncToken = resyncToken;
+    }
+}
@@ -0,0 +1,12 @@
+package max.iv.usersubscriptionservice.exception;
+
+import java.time.LocalDateTime;
+
+public record ErrorDetailsResync(
+
+        LocalDateTime timestamp,
+        String message,
+        String path,
+        int status,
+        String resyncToken // Токен, с которого читать ленту после полной перезагрузки данных
+) {}
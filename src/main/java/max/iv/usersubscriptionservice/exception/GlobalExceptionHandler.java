@@ -1,12 +1,15 @@
 package max.iv.usersubscriptionservice.exception;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.web.bind.MissingServletRequestParameterException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 import org.springframework.validation.FieldError;
 
 import java.time.LocalDateTime;
@@ -15,6 +18,7 @@ import java.util.stream.Collectors;
 
 @ControllerAdvice
 @Slf4j
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class GlobalExceptionHandler {
 
     @ExceptionHandler(ResourceNotFoundException.class)
@@ -43,6 +47,46 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(errorDetails, HttpStatus.CONFLICT);
     }
 
+    @ExceptionHandler(InvalidRequestParameterException.class)
+    public ResponseEntity<ErrorDetails> handleInvalidRequestParameterException(
+            InvalidRequestParameterException ex, WebRequest request) {
+        log.warn("Invalid request parameter: {}", ex.getMessage());
+        ErrorDetails errorDetails = new ErrorDetails(
+                LocalDateTime.now(),
+                ex.getMessage(),
+                request.getDescription(false),
+                HttpStatus.BAD_REQUEST.value()
+        );
+        return new ResponseEntity<>(errorDetails, HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(ChangeFeedTokenExpiredException.class)
+    public ResponseEntity<ErrorDetailsResync> handleChangeFeedTokenExpiredException(
+            ChangeFeedTokenExpiredException ex, WebRequest request) {
+        log.warn("Change feed token expired: {}", ex.getMessage());
+        ErrorDetailsResync errorDetails = new ErrorDetailsResync(
+                LocalDateTime.now(),
+                ex.getMessage(),
+                request.getDescription(false),
+                HttpStatus.GONE.value(),
+                ex.getResyncToken()
+        );
+        return new ResponseEntity<>(errorDetails, HttpStatus.GONE);
+    }
+
+    @ExceptionHandler({MissingServletRequestParameterException.class, MethodArgumentTypeMismatchException.class})
+    public ResponseEntity<ErrorDetails> handleRequestParameterBindingException(
+            Exception ex, WebRequest request) {
+        log.warn("Invalid request parameter: {}", ex.getMessage());
+        ErrorDetails errorDetails = new ErrorDetails(
+                LocalDateTime.now(),
+                ex.getMessage(),
+                request.getDescription(false),
+                HttpStatus.BAD_REQUEST.value()
+        );
+        return new ResponseEntity<>(errorDetails, HttpStatus.BAD_REQUEST);
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<ErrorDetailsValidation> handleMethodArgumentNotValidException(
             MethodArgumentNotValidException ex, WebRequest request) {
@@ -0,0 +1,62 @@
+package max.iv.usersubscriptionservice.exception;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.server.ServerWebInputException;
+
+import java.time.LocalDateTime;
+
+/**
+ * {@link GlobalExceptionHandler} for the reactive read stack: the same {@link ErrorDetails} bodies,
+ * with the request path taken from {@link ServerHttpRequest}.
+ */
+@ControllerAdvice
+@Slf4j
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveExceptionHandler {
+
+    @ExceptionHandler(ResourceNotFoundException.class)
+    public ResponseEntity<ErrorDetails> handleResourceNotFoundException(
+            ResourceNotFoundException ex, ServerHttpRequest request) {
+        log.warn("Resource not found: {}", ex.getMessage());
+        return errorResponse(ex.getMessage(), request, HttpStatus.NOT_FOUND);
+    }
+
+    @ExceptionHandler(InvalidRequestParameterException.class)
+    public ResponseEntity<ErrorDetails> handleInvalidRequestParameterException(
+            InvalidRequestParameterException ex, ServerHttpRequest request) {
+        log.warn("Invalid request parameter: {}", ex.getMessage());
+        return errorResponse(ex.getMessage(), request, HttpStatus.BAD_REQUEST);
+    }
+
+    // Отсутствующий или нечитаемый параметр запроса (аналог MissingServletRequestParameterException и type mismatch)
+    @ExceptionHandler(ServerWebInputException.class)
+    public ResponseEntity<ErrorDetails> handleServerWebInputException(
+            ServerWebInputException ex, ServerHttpRequest request) {
+        log.warn("Invalid request parameter: {}", ex.getMessage());
+        return errorResponse(ex.getReason(), request, HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(Exception.class)
+    public ResponseEntity<ErrorDetails> handleGlobalException(Exception ex, ServerHttpRequest request) {
+        log.error("An unexpected error occurred: ", ex);
+        return errorResponse("An internal server error occurred. Please try again later.", request,
+                HttpStatus.INTERNAL_SERVER_ERROR);
+    }
+
+    private static ResponseEntity<ErrorDetails> errorResponse(String message, ServerHttpRequest request,
+                                                              HttpStatus status) {
+        ErrorDetails errorDetails = new ErrorDetails(
+                LocalDateTime.now(),
+                message,
+                "uri=" + request.getPath().value(), // Тот же формат, что у WebRequest.getDescription(false)
+                status.value()
+        );
+        return new ResponseEntity<>(errorDetails, status);
+    }
+}
@@ -0,0 +1,139 @@
+package max.iv.usersubscriptionservice.expiry;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import max.iv.usersubscriptionservice.cache.UserSubscriptionsCache;
+import max.iv.usersubscriptionservice.repository.SubscriptionJdbcRepository;
+import max.iv.usersubscriptionservice.repository.SubscriptionJdbcRepository.ExpiredSubscription;
+import max.iv.usersubscriptionservice.statistics.SubscriptionPopularityCounter;
+import max.iv.usersubscriptionservice.util.TransactionCallbacks;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Deletes subscriptions whose end date has passed. Due rows are found through the partial index on
+ * {@code end_date} and claimed in bounded batches with {@code FOR UPDATE SKIP LOCKED}, each batch in
+ * its own short transaction, so several instances can run the engine side by side without waiting on
+ * each other or on request traffic. Popularity counters and cached subscription collections are
+ * updated after each batch commits.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "subscriptions.expiry.enabled", havingValue = "true", matchIfMissing = true)
+public class SubscriptionExpiryEngine implements MeterBinder {
+
+    private final SubscriptionJdbcRepository subscriptionJdbcRepository;
+
+    private final SubscriptionPopularityCounter popularityCounter;
+
+    private final UserSubscriptionsCache userSubscriptionsCache;
+
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${subscriptions.expiry.batch-size:500}")
+    private int batchSize;
+
+    @Value("${subscriptions.expiry.max-batches-per-run:200}")
+    private int maxBatchesPerRun;
+
+    @Value("${subscriptions.expiry.batch-pause:PT0.05S}")
+    private Duration batchPause;
+
+    private final AtomicLong expired = new AtomicLong();
+
+    private final AtomicLong batches = new AtomicLong();
+
+    private final AtomicLong backlog = new AtomicLong();
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("subscriptions.expiry.expired", expired, AtomicLong::get)
+                .description("Subscriptions deleted after their end date")
+                .register(registry);
+        FunctionCounter.builder("subscriptions.expiry.batches", batches, AtomicLong::get)
+                .description("Expiry batches committed")
+                .register(registry);
+        Gauge.builder("subscriptions.expiry.backlog", backlog, AtomicLong::get)
+                .description("Subscriptions past their end date left after the last expiry run")
+                .register(registry);
+    }
+
+    @Scheduled(fixedDelayString = "${subscriptions.expiry.interval:PT1M}",
+            initialDelayString = "${subscriptions.expiry.initial-delay:PT30S}")
+    public void run() {
+        expireDue(LocalDate.now());
+    }
+
+    /**
+     * Deletes subscriptions that ended before {@code today}, at most {@code max-batches-per-run} batches.
+     *
+     * @return number of deleted subscriptions
+     */
+    public long expireDue(LocalDate today) {
+        long startedAt = System.nanoTime();
+        long total = 0;
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            Integer deleted = transactionTemplate.execute(status -> expireBatch(today));
+            int deletedInBatch = deleted != null ? deleted : 0;
+            total += deletedInBatch;
+            if (deletedInBatch < batchSize) {
+                break;
+            }
+            // Пауза между пачками отдаёт соединения и диск пользовательским запросам
+            if (!pause()) {
+                break;
+            }
+        }
+        backlog.set(subscriptionJdbcRepository.countExpired(today));
+        if (total > 0 || backlog.get() > 0) {
+            log.info("Expired {} subscription(s) in {} ms, {} still due",
+                    total, Duration.ofNanos(System.nanoTime() - startedAt).toMillis(), backlog.get());
+        }
+        return total;
+    }
+
+    private int expireBatch(LocalDate today) {
+        List<ExpiredSubscription> deleted = subscriptionJdbcRepository.deleteExpiredBatch(today, batchSize);
+        if (deleted.isEmpty()) {
+            return 0;
+        }
+        popularityCounter.recordRemoved(deleted.stream().map(ExpiredSubscription::serviceName).toList());
+        Set<UUID> userIds = deleted.stream().map(ExpiredSubscription::userId).collect(Collectors.toSet());
+        userSubscriptionsCache.evict(userIds);
+        int count = deleted.size();
+        TransactionCallbacks.afterCommit(() -> {
+            expired.addAndGet(count);
+            batches.incrementAndGet();
+        });
+        return count;
+    }
+
+    private boolean pause() {
+        if (batchPause.isZero()) {
+            return true;
+        }
+        try {
+            Thread.sleep(batchPause);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -4,6 +4,7 @@ import max.iv.usersubscriptionservice.dto.SubscriptionCreateRequestDto;
 import max.iv.usersubscriptionservice.dto.SubscriptionResponseDto;
 import max.iv.usersubscriptionservice.dto.TopSubscriptionDto;
 import max.iv.usersubscriptionservice.models.Subscription;
+import max.iv.usersubscriptionservice.models.SubscriptionRow;
 import max.iv.usersubscriptionservice.models.User;
 import max.iv.usersubscriptionservice.models.enums.ServiceName;
 import org.springframework.stereotype.Component;
@@ -29,6 +30,11 @@ public class SubscriptionMapper {
         );
     }
 
+    public SubscriptionResponseDto toSubscriptionResponseDto(SubscriptionRow row) {
+        return new SubscriptionResponseDto(row.id(), row.serviceName(), row.startDate(), row.endDate(),
+                row.createdAt(), row.updatedAt(), row.userId());
+    }
+
     public Subscription toSubscription(SubscriptionCreateRequestDto dto, User user) {
 
         if (dto == null) {
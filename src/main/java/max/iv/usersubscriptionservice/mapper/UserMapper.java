@@ -5,6 +5,7 @@ import max.iv.usersubscriptionservice.dto.UserResponseDto;
 import max.iv.usersubscriptionservice.dto.UserUpdateRequestDto;
 import max.iv.usersubscriptionservice.dto.UserWithSubscriptionNamesDto;
 import max.iv.usersubscriptionservice.models.User;
+import max.iv.usersubscriptionservice.models.UserRow;
 import org.springframework.stereotype.Component;
 
 import java.util.List;
@@ -28,6 +29,11 @@ public class UserMapper {
         );
     }
 
+    public UserResponseDto toUserResponseDto(UserRow row) {
+        return new UserResponseDto(row.id(), row.username(), row.email(), row.firstName(), row.lastName(),
+                row.createdAt(), row.updatedAt());
+    }
+
     public User toUser(UserCreateRequestDto dto) {
         if (dto == null) {
             return null;
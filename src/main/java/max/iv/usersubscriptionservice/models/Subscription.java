@@ -1,5 +1,6 @@
 package max.iv.usersubscriptionservice.models;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
@@ -22,6 +23,8 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import max.iv.usersubscriptionservice.models.enums.ServiceName;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -32,6 +35,8 @@ import java.util.UUID;
 
 @Entity
 @Table(name = "subscriptions")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "subscription")
 @Getter
 @Setter
 @NoArgsConstructor
@@ -0,0 +1,33 @@
+package max.iv.usersubscriptionservice.models;
+
+import max.iv.usersubscriptionservice.models.enums.ServiceName;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Read-only R2DBC mapping of the {@code subscriptions} table for the reactive read stack.
+ */
+@Table("subscriptions")
+public record SubscriptionRow(
+
+        @Id
+        UUID id,
+        @Column("service_name")
+        ServiceName serviceName,
+        @Column("start_date")
+        LocalDate startDate,
+        @Column("end_date")
+        LocalDate endDate,
+        @Column("created_time")
+        LocalDateTime createdAt,
+        @Column("updated_time")
+        LocalDateTime updatedAt,
+        @Column("user_id")
+        UUID userId
+) {
+}
@@ -0,0 +1,30 @@
+package max.iv.usersubscriptionservice.models;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Read-only R2DBC mapping of the {@code users} table for the reactive read stack; the JPA
+ * {@link User} entity stays the write model. The password column is deliberately not mapped.
+ */
+@Table("users")
+public record UserRow(
+
+        @Id
+        UUID id,
+        String username,
+        String email,
+        @Column("first_name")
+        String firstName,
+        @Column("last_name")
+        String lastName,
+        @Column("created_time")
+        LocalDateTime createdAt,
+        @Column("updated_time")
+        LocalDateTime updatedAt
+) {
+}
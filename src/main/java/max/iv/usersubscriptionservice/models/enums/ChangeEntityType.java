@@ -0,0 +1,6 @@
+package max.iv.usersubscriptionservice.models.enums;
+
+public enum ChangeEntityType {
+    USER,
+    SUBSCRIPTION
+}
@@ -0,0 +1,7 @@
+package max.iv.usersubscriptionservice.models.enums;
+
+public enum ChangeOperation {
+    CREATED,
+    UPDATED,
+    DELETED
+}
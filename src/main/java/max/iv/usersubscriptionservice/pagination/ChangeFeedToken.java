@@ -0,0 +1,42 @@
+package max.iv.usersubscriptionservice.pagination;
+
+import max.iv.usersubscriptionservice.exception.InvalidRequestParameterException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position in the change feed: the last served change-log row, ordered by (transaction id, id).
+ * Clients only see it as an opaque token.
+ */
+public record ChangeFeedToken(
+        long txId,
+        long id
+) {
+
+    public static final ChangeFeedToken START = new ChangeFeedToken(0, 0);
+
+    private static final String SEPARATOR = "|";
+
+    public boolean isBefore(ChangeFeedToken other) {
+        return txId < other.txId || (txId == other.txId && id < other.id);
+    }
+
+    public String encode() {
+        String raw = txId + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static ChangeFeedToken decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", 2);
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Unexpected number of token parts: " + parts.length);
+            }
+            return new ChangeFeedToken(Long.parseLong(parts[0]), Long.parseLong(parts[1]));
+        } catch (RuntimeException e) {
+            throw new InvalidRequestParameterException("Invalid change feed token: " + token);
+        }
+    }
+}
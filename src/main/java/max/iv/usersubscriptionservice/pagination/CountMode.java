@@ -0,0 +1,24 @@
+package max.iv.usersubscriptionservice.pagination;
+
+import max.iv.usersubscriptionservice.exception.InvalidRequestParameterException;
+
+import java.util.Locale;
+
+/**
+ * How the total of an offset page is obtained: an exact {@code count(*)}, the planner's
+ * row estimate from {@code pg_class}, or no total at all (has-next slice).
+ */
+public enum CountMode {
+    EXACT,
+    ESTIMATED,
+    NONE;
+
+    public static CountMode fromParameter(String value) {
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidRequestParameterException(
+                    "Unsupported count mode: " + value + ", expected one of exact, estimated, none");
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package max.iv.usersubscriptionservice.pagination;
+
+import max.iv.usersubscriptionservice.exception.InvalidRequestParameterException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Position of the last row of a subscription search page, ordered by ({@code startDate}, id).
+ * Clients only see it as an opaque token.
+ */
+public record SubscriptionKeysetCursor(
+        LocalDate lastStartDate,
+        UUID lastId
+) {
+
+    private static final String SEPARATOR = "|";
+
+    public String encode() {
+        String raw = lastStartDate + SEPARATOR + lastId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static SubscriptionKeysetCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", 2);
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Unexpected number of cursor parts: " + parts.length);
+            }
+            return new SubscriptionKeysetCursor(LocalDate.parse(parts[0]), UUID.fromString(parts[1]));
+        } catch (RuntimeException e) {
+            throw new InvalidRequestParameterException("Invalid cursor: " + token);
+        }
+    }
+}
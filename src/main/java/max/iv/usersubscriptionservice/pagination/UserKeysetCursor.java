@@ -0,0 +1,56 @@
+package max.iv.usersubscriptionservice.pagination;
+
+import max.iv.usersubscriptionservice.exception.InvalidRequestParameterException;
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Position of the last row of a keyset page. Clients only see it as an opaque token.
+ * A cursor without {@code lastId} points at the start of the listing.
+ */
+public record UserKeysetCursor(
+        UserSortKey sortKey,
+        Sort.Direction direction,
+        String lastValue,
+        UUID lastId
+) {
+
+    private static final String SEPARATOR = "|";
+
+    public static UserKeysetCursor first(UserSortKey sortKey, Sort.Direction direction) {
+        return new UserKeysetCursor(sortKey, direction, null, null);
+    }
+
+    public boolean isFirst() {
+        return lastId == null;
+    }
+
+    public UserKeysetCursor next(String lastValue, UUID lastId) {
+        return new UserKeysetCursor(sortKey, direction, lastValue, lastId);
+    }
+
+    public String encode() {
+        String raw = sortKey.name() + SEPARATOR + direction.name() + SEPARATOR + lastId + SEPARATOR + lastValue;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static UserKeysetCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            // Значение идет последним, так как само может содержать разделитель
+            String[] parts = raw.split("\\|", 4);
+            if (parts.length != 4) {
+                throw new IllegalArgumentException("Unexpected number of cursor parts: " + parts.length);
+            }
+            UserSortKey sortKey = UserSortKey.valueOf(parts[0]);
+            UUID lastId = UUID.fromString(parts[2]);
+            sortKey.parseValue(parts[3]);
+            return new UserKeysetCursor(sortKey, Sort.Direction.valueOf(parts[1]), parts[3], lastId);
+        } catch (RuntimeException e) {
+            throw new InvalidRequestParameterException("Invalid cursor: " + token);
+        }
+    }
+}
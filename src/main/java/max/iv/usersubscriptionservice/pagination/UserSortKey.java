@@ -0,0 +1,45 @@
+package max.iv.usersubscriptionservice.pagination;
+
+import max.iv.usersubscriptionservice.dto.UserWithSubscriptionNamesDto;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * User properties that keyset pagination can seek on. Each one is backed by a
+ * composite ({@code column}, id) index.
+ */
+public enum UserSortKey {
+    USERNAME("username"),
+    EMAIL("email"),
+    CREATED_AT("createdAt");
+
+    private final String property;
+
+    UserSortKey(String property) {
+        this.property = property;
+    }
+
+    public String getProperty() {
+        return property;
+    }
+
+    public String valueOf(UserWithSubscriptionNamesDto user) {
+        return switch (this) {
+            case USERNAME -> user.username();
+            case EMAIL -> user.email();
+            case CREATED_AT -> user.createdAt().toString();
+        };
+    }
+
+    public Object parseValue(String value) {
+        return this == CREATED_AT ? LocalDateTime.parse(value) : value;
+    }
+
+    public static Optional<UserSortKey> fromProperty(String property) {
+        return Arrays.stream(values())
+                .filter(key -> key.property.equals(property))
+                .findFirst();
+    }
+}
@@ -0,0 +1,167 @@
+package max.iv.usersubscriptionservice.partitioning;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import max.iv.usersubscriptionservice.util.TransactionCallbacks;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Online backfill of the hash-partitioned {@code subscriptions_partitioned} table (V008) from the old
+ * {@code subscriptions} table. Writes made after V008 reach the new table through the sync trigger; this
+ * job copies the older rows, walking the old table by id in short batches. Rows of a batch are locked
+ * {@code FOR SHARE}, so a concurrent update or delete waits for the batch to commit and the trigger then
+ * replaces or removes the copy. The position lives in {@code subscriptions_partition_backfill}, whose row
+ * lock keeps several instances from copying the same range. Once every row is copied, the next migration
+ * run swaps the tables (V009), and the job finds nothing left to do.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "subscriptions.partition-backfill.enabled", havingValue = "true", matchIfMissing = true)
+public class SubscriptionPartitionBackfill implements MeterBinder {
+
+    private static final String PENDING_SQL =
+            "SELECT to_regclass('subscriptions_partition_backfill') IS NOT NULL";
+
+    // Экземпляр, не получивший строку позиции, пропускает запуск: перенос уже идет в другом
+    private static final String CLAIM_POSITION_SQL =
+            "SELECT last_id, completed_time IS NOT NULL AS completed FROM subscriptions_partition_backfill " +
+            "WHERE id = 1 FOR UPDATE SKIP LOCKED";
+
+    private static final String COPY_BATCH_SQL =
+            "WITH batch AS (" +
+            "SELECT id, service_name, start_date, end_date, user_id, created_time, updated_time " +
+            "FROM subscriptions WHERE id > ? ORDER BY id LIMIT ? FOR SHARE), " +
+            "copied AS (" +
+            "INSERT INTO subscriptions_partitioned " +
+            "(id, service_name, start_date, end_date, user_id, created_time, updated_time) " +
+            "SELECT id, service_name, start_date, end_date, user_id, created_time, updated_time FROM batch " +
+            "ON CONFLICT DO NOTHING) " +
+            "SELECT (SELECT id FROM batch ORDER BY id DESC LIMIT 1) AS last_id, " +
+            "(SELECT count(*) FROM batch) AS batch_rows";
+
+    private static final String SAVE_POSITION_SQL =
+            "UPDATE subscriptions_partition_backfill SET last_id = coalesce(?::uuid, last_id), " +
+            "copied_rows = copied_rows + ?, completed_time = CASE WHEN ? THEN now() END WHERE id = 1";
+
+    private static final UUID MIN_ID = new UUID(0L, 0L);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${subscriptions.partition-backfill.batch-size:5000}")
+    private int batchSize;
+
+    @Value("${subscriptions.partition-backfill.max-batches-per-run:200}")
+    private int maxBatchesPerRun;
+
+    @Value("${subscriptions.partition-backfill.batch-pause:PT0.05S}")
+    private Duration batchPause;
+
+    private final AtomicLong copied = new AtomicLong();
+
+    private volatile boolean finished;
+
+    private record Position(UUID lastId, boolean completed) {
+    }
+
+    private record Batch(UUID lastId, long rows) {
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("subscriptions.partition.backfill.copied", copied, AtomicLong::get)
+                .description("Subscriptions copied into the hash-partitioned table by the backfill")
+                .register(registry);
+    }
+
+    @Scheduled(fixedDelayString = "${subscriptions.partition-backfill.interval:PT1M}",
+            initialDelayString = "${subscriptions.partition-backfill.initial-delay:PT30S}")
+    public void run() {
+        if (!finished) {
+            backfill();
+        }
+    }
+
+    /**
+     * Copies at most {@code max-batches-per-run} batches.
+     *
+     * @return number of rows read from the old table in this run
+     */
+    public long backfill() {
+        if (!Boolean.TRUE.equals(jdbcTemplate.queryForObject(PENDING_SQL, Boolean.class))) {
+            // Таблицы уже переключены (V009) или секционирование еще не накатано
+            finished = true;
+            return 0;
+        }
+        long startedAt = System.nanoTime();
+        long total = 0;
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            Long rows = transactionTemplate.execute(status -> copyBatch());
+            if (rows == null) {
+                break;
+            }
+            total += rows;
+            if (rows < batchSize) {
+                finished = true;
+                log.info("Subscription partition backfill complete; the next migration run swaps the tables");
+                break;
+            }
+            if (!pause()) {
+                break;
+            }
+        }
+        if (total > 0) {
+            log.info("Copied {} subscription(s) into the partitioned table in {} ms", total,
+                    Duration.ofNanos(System.nanoTime() - startedAt).toMillis());
+        }
+        return total;
+    }
+
+    // null — копировать нечего: перенос завершен или позицию держит другой экземпляр
+    private Long copyBatch() {
+        List<Position> positions = jdbcTemplate.query(CLAIM_POSITION_SQL, (rs, rowNum) ->
+                new Position(rs.getObject("last_id", UUID.class), rs.getBoolean("completed")));
+        if (positions.isEmpty()) {
+            return null;
+        }
+        Position position = positions.get(0);
+        if (position.completed()) {
+            finished = true;
+            return null;
+        }
+        Batch batch = jdbcTemplate.queryForObject(COPY_BATCH_SQL, (rs, rowNum) ->
+                        new Batch(rs.getObject("last_id", UUID.class), rs.getLong("batch_rows")),
+                position.lastId() != null ? position.lastId() : MIN_ID, batchSize);
+        jdbcTemplate.update(SAVE_POSITION_SQL, batch.lastId(), batch.rows(), batch.rows() < batchSize);
+        TransactionCallbacks.afterCommit(() -> copied.addAndGet(batch.rows()));
+        return batch.rows();
+    }
+
+    private boolean pause() {
+        if (batchPause.isZero()) {
+            return true;
+        }
+        try {
+            Thread.sleep(batchPause);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
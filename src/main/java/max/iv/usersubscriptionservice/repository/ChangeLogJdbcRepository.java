@@ -0,0 +1,173 @@
+package max.iv.usersubscriptionservice.repository;
+
+import lombok.RequiredArgsConstructor;
+import max.iv.usersubscriptionservice.dto.ChangeDto;
+import max.iv.usersubscriptionservice.dto.SubscriptionResponseDto;
+import max.iv.usersubscriptionservice.dto.UserResponseDto;
+import max.iv.usersubscriptionservice.models.enums.ChangeEntityType;
+import max.iv.usersubscriptionservice.models.enums.ChangeOperation;
+import max.iv.usersubscriptionservice.models.enums.ServiceName;
+import max.iv.usersubscriptionservice.pagination.ChangeFeedToken;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Reads the {@code change_log} table filled by triggers on {@code users} and {@code subscriptions}.
+ * <p>
+ * Row ids are taken at insert time but become visible at commit, so a plain {@code id > token} scan could
+ * skip a row of a transaction that commits after a later one was already served. Rows are therefore
+ * ordered by (transaction id, id) and served only from transactions below the snapshot's {@code xmin}:
+ * those have all finished, and no new row can appear behind an issued token.
+ * <p>
+ * Old rows are pruned as a prefix in the same order, and the last pruned position is kept in
+ * {@code change_log_retention}: a token below it may have missed pruned rows.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ChangeLogJdbcRepository {
+
+    // Текущее состояние подтягивается только для вставок и изменений; для надгробий join не нужен
+    private static final String FEED_SQL =
+            "SELECT c.id, c.tx_id, c.entity_type, c.entity_id, c.operation, c.changed_time, " +
+            "u.id AS user_row_id, u.username, u.email, u.first_name, u.last_name, " +
+            "u.created_time AS user_created_time, u.updated_time AS user_updated_time, " +
+            "s.id AS subscription_row_id, s.service_name, s.start_date, s.end_date, s.user_id, " +
+            "s.created_time AS subscription_created_time, s.updated_time AS subscription_updated_time " +
+            "FROM change_log c " +
+            "LEFT JOIN users u ON c.entity_type = 'USER' AND c.operation <> 'DELETED' AND u.id = c.entity_id " +
+            "LEFT JOIN subscriptions s ON c.entity_type = 'SUBSCRIPTION' AND c.operation <> 'DELETED' " +
+            "AND s.id = c.entity_id " +
+            "WHERE (c.tx_id, c.id) > (?, ?) " +
+            "AND c.tx_id < pg_snapshot_xmin(pg_current_snapshot())::text::bigint " +
+            "ORDER BY c.tx_id, c.id " +
+            "LIMIT ?";
+
+    private static final String HEAD_SQL =
+            "SELECT tx_id, id FROM change_log " +
+            "WHERE tx_id < pg_snapshot_xmin(pg_current_snapshot())::text::bigint " +
+            "ORDER BY tx_id DESC, id DESC LIMIT 1";
+
+    private static final String PRUNED_POSITION_SQL =
+            "SELECT pruned_tx_id, pruned_id FROM change_log_retention WHERE id = 1";
+
+    // Экземпляр, не получивший строку границы, пропускает запуск: очистку уже ведет другой
+    private static final String CLAIM_PRUNED_POSITION_SQL = PRUNED_POSITION_SQL + " FOR UPDATE SKIP LOCKED";
+
+    // Удаляется только начало ленты до первой строки моложе срока хранения или из незавершенной транзакции,
+    // поэтому все оставшиеся строки лежат после сохраненной границы
+    private static final String PRUNE_BATCH_SQL =
+            "WITH head AS (" +
+            "SELECT id, tx_id, changed_time, " +
+            "tx_id < pg_snapshot_xmin(pg_current_snapshot())::text::bigint AS finished " +
+            "FROM change_log ORDER BY tx_id, id LIMIT ?), " +
+            "prefix AS (" +
+            "SELECT id, bool_and(finished AND changed_time < ?) OVER (ORDER BY tx_id, id) AS prunable FROM head), " +
+            "pruned AS (" +
+            "DELETE FROM change_log c USING prefix p WHERE c.id = p.id AND p.prunable RETURNING c.tx_id, c.id) " +
+            "SELECT tx_id, id, count(*) OVER () AS pruned_rows FROM pruned ORDER BY tx_id DESC, id DESC LIMIT 1";
+
+    private static final String SAVE_PRUNED_POSITION_SQL =
+            "UPDATE change_log_retention SET pruned_tx_id = ?, pruned_id = ?, pruned_rows = pruned_rows + ?, " +
+            "pruned_time = now() WHERE id = 1";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public List<FeedEntry> findAfter(ChangeFeedToken token, int limit) {
+        return jdbcTemplate.query(FEED_SQL, (rs, rowNum) -> new FeedEntry(
+                new ChangeFeedToken(rs.getLong("tx_id"), rs.getLong("id")),
+                toChange(rs)), token.txId(), token.id(), limit);
+    }
+
+    /**
+     * Position of the newest change a reader can be served now, or the pruned position if the log is empty.
+     */
+    public ChangeFeedToken findHead() {
+        return jdbcTemplate.query(HEAD_SQL, (rs, rowNum) -> new ChangeFeedToken(rs.getLong("tx_id"), rs.getLong("id")))
+                .stream()
+                .findFirst()
+                .orElseGet(this::findPrunedPosition);
+    }
+
+    public ChangeFeedToken findPrunedPosition() {
+        return jdbcTemplate.queryForObject(PRUNED_POSITION_SQL,
+                (rs, rowNum) -> new ChangeFeedToken(rs.getLong("pruned_tx_id"), rs.getLong("pruned_id")));
+    }
+
+    /**
+     * Locks the retention row for the current transaction.
+     *
+     * @return the pruned position, or empty if another instance holds the lock
+     */
+    public Optional<ChangeFeedToken> claimPrunedPosition() {
+        return jdbcTemplate.query(CLAIM_PRUNED_POSITION_SQL,
+                        (rs, rowNum) -> new ChangeFeedToken(rs.getLong("pruned_tx_id"), rs.getLong("pruned_id")))
+                .stream()
+                .findFirst();
+    }
+
+    /**
+     * Deletes up to {@code limit} of the oldest entries written before {@code cutoff} and moves the pruned
+     * position past them. Call after {@link #claimPrunedPosition()} in the same transaction.
+     *
+     * @return number of deleted entries
+     */
+    public int pruneBatch(Instant cutoff, int limit) {
+        List<PrunedBatch> batches = jdbcTemplate.query(PRUNE_BATCH_SQL, (rs, rowNum) -> new PrunedBatch(
+                new ChangeFeedToken(rs.getLong("tx_id"), rs.getLong("id")),
+                rs.getInt("pruned_rows")), limit, Timestamp.from(cutoff));
+        if (batches.isEmpty()) {
+            return 0;
+        }
+        PrunedBatch batch = batches.get(0);
+        jdbcTemplate.update(SAVE_PRUNED_POSITION_SQL, batch.last().txId(), batch.last().id(), batch.rows());
+        return batch.rows();
+    }
+
+    private static ChangeDto toChange(ResultSet rs) throws SQLException {
+        UserResponseDto user = null;
+        if (rs.getObject("user_row_id") != null) {
+            user = new UserResponseDto(
+                    rs.getObject("user_row_id", UUID.class),
+                    rs.getString("username"),
+                    rs.getString("email"),
+                    rs.getString("first_name"),
+                    rs.getString("last_name"),
+                    rs.getTimestamp("user_created_time").toLocalDateTime(),
+                    rs.getTimestamp("user_updated_time").toLocalDateTime());
+        }
+        SubscriptionResponseDto subscription = null;
+        if (rs.getObject("subscription_row_id") != null) {
+            Date endDate = rs.getDate("end_date");
+            subscription = new SubscriptionResponseDto(
+                    rs.getObject("subscription_row_id", UUID.class),
+                    ServiceName.valueOf(rs.getString("service_name")),
+                    rs.getDate("start_date").toLocalDate(),
+                    endDate != null ? endDate.toLocalDate() : null,
+                    rs.getTimestamp("subscription_created_time").toLocalDateTime(),
+                    rs.getTimestamp("subscription_updated_time").toLocalDateTime(),
+                    rs.getObject("user_id", UUID.class));
+        }
+        return new ChangeDto(
+                ChangeEntityType.valueOf(rs.getString("entity_type")),
+                rs.getObject("entity_id", UUID.class),
+                ChangeOperation.valueOf(rs.getString("operation")),
+                rs.getTimestamp("changed_time").toLocalDateTime(),
+                user,
+                subscription);
+    }
+
+    public record FeedEntry(ChangeFeedToken position, ChangeDto change) {
+    }
+
+    private record PrunedBatch(ChangeFeedToken last, int rows) {
+    }
+}
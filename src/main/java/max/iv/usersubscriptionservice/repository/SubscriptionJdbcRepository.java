@@ -0,0 +1,126 @@
+package max.iv.usersubscriptionservice.repository;
+
+import lombok.RequiredArgsConstructor;
+import max.iv.usersubscriptionservice.dto.SubscriptionResponseDto;
+import max.iv.usersubscriptionservice.models.Subscription;
+import max.iv.usersubscriptionservice.models.enums.ServiceName;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Set-based subscription statements that go around the persistence context, see {@link UserJdbcRepository}.
+ */
+@Repository
+@RequiredArgsConstructor
+public class SubscriptionJdbcRepository {
+
+    private static final String INSERT_IGNORING_CONFLICTS_SQL =
+            "INSERT INTO subscriptions (id, service_name, start_date, end_date, user_id) " +
+            "VALUES (?, ?, ?, ?, ?) " +
+            "ON CONFLICT (user_id, service_name) DO NOTHING";
+
+    private static final String INSERT_IF_ABSENT_SQL =
+            "INSERT INTO subscriptions (service_name, start_date, end_date, user_id) " +
+            "VALUES (?, ?, ?, ?) " +
+            "ON CONFLICT (user_id, service_name) DO NOTHING " +
+            "RETURNING id, created_time, updated_time";
+
+    // Условие по user_id оставляет в плане одну секцию таблицы
+    private static final String DELETE_BY_ID_AND_USER_ID_SQL =
+            "DELETE FROM subscriptions WHERE id = ? AND user_id = ? RETURNING service_name";
+
+    // Строки, которые уже держит другой экземпляр, пропускаются: параллельные воркеры разбирают разные пачки
+    private static final String DELETE_EXPIRED_BATCH_SQL =
+            "WITH due AS (" +
+            "SELECT id, user_id FROM subscriptions WHERE end_date IS NOT NULL AND end_date < ? " +
+            "ORDER BY end_date LIMIT ? FOR UPDATE SKIP LOCKED) " +
+            "DELETE FROM subscriptions s USING due WHERE s.id = due.id AND s.user_id = due.user_id " +
+            "RETURNING s.user_id, s.service_name";
+
+    private static final String COUNT_EXPIRED_SQL =
+            "SELECT count(*) FROM subscriptions WHERE end_date IS NOT NULL AND end_date < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Inserts the subscription unless the user already has one for the same service. Only the user id is read
+     * from {@link Subscription#getUser()}, so a reference proxy is enough.
+     *
+     * @return the subscription with the generated id and timestamps filled in, or empty on conflict
+     */
+    public Optional<Subscription> insertIfAbsent(Subscription subscription) {
+        List<Subscription> inserted = jdbcTemplate.query(INSERT_IF_ABSENT_SQL, (rs, rowNum) -> {
+            subscription.setId(rs.getObject("id", UUID.class));
+            subscription.setCreatedAt(rs.getTimestamp("created_time").toLocalDateTime());
+            subscription.setUpdatedAt(rs.getTimestamp("updated_time").toLocalDateTime());
+            return subscription;
+        }, subscription.getServiceName().name(),
+                Date.valueOf(subscription.getStartDate()),
+                subscription.getEndDate() != null ? Date.valueOf(subscription.getEndDate()) : null,
+                subscription.getUser().getId());
+        return inserted.stream().findFirst();
+    }
+
+    /**
+     * Deletes the user's subscription without loading it into the persistence context.
+     *
+     * @return service of the deleted subscription, or empty if the user has no subscription with this id
+     */
+    public Optional<ServiceName> deleteByIdAndUserId(UUID subscriptionId, UUID userId) {
+        List<ServiceName> deleted = jdbcTemplate.query(DELETE_BY_ID_AND_USER_ID_SQL,
+                (rs, rowNum) -> ServiceName.valueOf(rs.getString("service_name")), subscriptionId, userId);
+        return deleted.stream().findFirst();
+    }
+
+    /**
+     * Batch insert; rows conflicting with an existing (user, service) subscription are silently skipped.
+     */
+    public void insertAllIgnoringConflicts(List<Subscription> subscriptions) {
+        jdbcTemplate.batchUpdate(INSERT_IGNORING_CONFLICTS_SQL, subscriptions, subscriptions.size(), (ps, subscription) -> {
+            ps.setObject(1, subscription.getId());
+            ps.setString(2, subscription.getServiceName().name());
+            ps.setDate(3, Date.valueOf(subscription.getStartDate()));
+            ps.setDate(4, subscription.getEndDate() != null ? Date.valueOf(subscription.getEndDate()) : null);
+            ps.setObject(5, subscription.getUser().getId());
+        });
+    }
+
+    /**
+     * Claims up to {@code limit} subscriptions that ended before {@code today} and deletes them.
+     *
+     * @return user id and service of every deleted subscription
+     */
+    public List<ExpiredSubscription> deleteExpiredBatch(LocalDate today, int limit) {
+        return jdbcTemplate.query(DELETE_EXPIRED_BATCH_SQL, (rs, rowNum) -> new ExpiredSubscription(
+                rs.getObject("user_id", UUID.class),
+                ServiceName.valueOf(rs.getString("service_name"))), Date.valueOf(today), limit);
+    }
+
+    public long countExpired(LocalDate today) {
+        Long count = jdbcTemplate.queryForObject(COUNT_EXPIRED_SQL, Long.class, Date.valueOf(today));
+        return count != null ? count : 0;
+    }
+
+    public List<SubscriptionResponseDto> search(SubscriptionSearchQuery query) {
+        return jdbcTemplate.query(query.sql(), (rs, rowNum) -> {
+            Date endDate = rs.getDate("end_date");
+            return new SubscriptionResponseDto(
+                    rs.getObject("id", UUID.class),
+                    ServiceName.valueOf(rs.getString("service_name")),
+                    rs.getDate("start_date").toLocalDate(),
+                    endDate != null ? endDate.toLocalDate() : null,
+                    rs.getTimestamp("created_time").toLocalDateTime(),
+                    rs.getTimestamp("updated_time").toLocalDateTime(),
+                    rs.getObject("user_id", UUID.class));
+        }, query.args().toArray());
+    }
+
+    public record ExpiredSubscription(UUID userId, ServiceName serviceName) {
+    }
+}
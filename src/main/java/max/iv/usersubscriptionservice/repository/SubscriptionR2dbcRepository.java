@@ -0,0 +1,17 @@
+package max.iv.usersubscriptionservice.repository;
+
+import max.iv.usersubscriptionservice.models.SubscriptionRow;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+import java.util.UUID;
+
+/**
+ * Reactive read access to subscriptions; created only in the {@code reactive} profile, where R2DBC is configured.
+ */
+@Repository
+public interface SubscriptionR2dbcRepository extends R2dbcRepository<SubscriptionRow, UUID> {
+
+    Flux<SubscriptionRow> findByUserId(UUID userId);
+}
@@ -1,13 +1,17 @@
 package max.iv.usersubscriptionservice.repository;
 
+import max.iv.usersubscriptionservice.dto.SubscriptionResponseDto;
 import max.iv.usersubscriptionservice.dto.TopSubscriptionDto;
 import max.iv.usersubscriptionservice.models.Subscription;
 import max.iv.usersubscriptionservice.models.User;
 import max.iv.usersubscriptionservice.models.enums.ServiceName;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -18,14 +22,31 @@ public interface SubscriptionRepository extends JpaRepository<Subscription, UUID
 
     List<Subscription> findByUserId(UUID userId);
 
+    @Query("SELECT new max.iv.usersubscriptionservice.dto.SubscriptionResponseDto(" +
+            "s.id, s.serviceName, s.startDate, s.endDate, s.createdAt, s.updatedAt, s.user.id) " +
+            "FROM Subscription s WHERE s.user.id = :userId")
+    List<SubscriptionResponseDto> findResponseDtosByUserId(@Param("userId") UUID userId);
+
     Optional<Subscription> findByIdAndUserId(UUID subscriptionId, UUID userId);
 
-    @Query("SELECT s.serviceName, COUNT(s) as subscriptionCount " +
+    @Query("SELECT s.serviceName, COUNT(s) " +
             "FROM Subscription s " +
-            "GROUP BY s.serviceName " +
-            "ORDER BY subscriptionCount DESC , s.serviceName ASC " +
-            "LIMIT 3")
-    List<Object[]> findTop3RawData();
+            "GROUP BY s.serviceName")
+    List<Object[]> countSubscriptionsByServiceName();
+
+    @Query("SELECT s.serviceName FROM Subscription s WHERE s.user.id = :userId")
+    List<ServiceName> findServiceNamesByUserId(@Param("userId") UUID userId);
+
+    @Query("SELECT s.user.id, s.serviceName FROM Subscription s " +
+            "WHERE s.user.id IN :userIds AND s.serviceName IN :serviceNames")
+    List<Object[]> findUserServicePairs(@Param("userIds") Collection<UUID> userIds,
+                                        @Param("serviceNames") Collection<ServiceName> serviceNames);
+
+    // Таблица секционирована по хэшу user_id: условие по user_id оставляет в плане только нужные секции
+    @Query("SELECT s.id FROM Subscription s WHERE s.id IN :ids AND s.user.id IN :userIds")
+    List<UUID> findExistingIds(@Param("ids") Collection<UUID> ids, @Param("userIds") Collection<UUID> userIds);
 
-    Optional<Subscription> findByUserIdAndServiceName(UUID userId, ServiceName serviceName);
+    @Modifying
+    @Query("DELETE FROM Subscription s WHERE s.user.id = :userId")
+    int deleteAllByUserId(@Param("userId") UUID userId);
 }
@@ -0,0 +1,57 @@
+package max.iv.usersubscriptionservice.repository;
+
+import max.iv.usersubscriptionservice.models.enums.ServiceName;
+import max.iv.usersubscriptionservice.pagination.SubscriptionKeysetCursor;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * SQL for one keyset page of subscriptions of a service, filtered by date range. Every variant is
+ * served by {@code idx_subscriptions_service_start_end}: equality on service_name, range and order on
+ * start_date, and the end_date conditions checked inside the index.
+ */
+public record SubscriptionSearchQuery(String sql, List<Object> args) {
+
+    private static final String SELECT_SQL =
+            "SELECT id, service_name, start_date, end_date, created_time, updated_time, user_id " +
+            "FROM subscriptions WHERE service_name = ?";
+
+    /**
+     * @param activeOn     subscriptions started on or before this date that have not ended before it
+     * @param startedAfter subscriptions started strictly after this date
+     * @param endsBefore   subscriptions with an end date strictly before this date
+     * @param after        position of the last row of the previous page, {@code null} for the first page
+     */
+    public static SubscriptionSearchQuery of(ServiceName serviceName, LocalDate activeOn, LocalDate startedAfter,
+                                             LocalDate endsBefore, SubscriptionKeysetCursor after, int limit) {
+        StringBuilder sql = new StringBuilder(SELECT_SQL);
+        List<Object> args = new ArrayList<>();
+        args.add(serviceName.name());
+        if (activeOn != null) {
+            sql.append(" AND start_date <= ? AND (end_date IS NULL OR end_date >= ?)");
+            args.add(Date.valueOf(activeOn));
+            args.add(Date.valueOf(activeOn));
+        }
+        if (startedAfter != null) {
+            sql.append(" AND start_date > ?");
+            args.add(Date.valueOf(startedAfter));
+        }
+        if (endsBefore != null) {
+            sql.append(" AND end_date < ?");
+            args.add(Date.valueOf(endsBefore));
+        }
+        if (after != null) {
+            // Отдельное условие по start_date становится границей индекса, сравнение кортежей отсекает равные даты
+            sql.append(" AND start_date >= ? AND (start_date, id) > (?, ?)");
+            args.add(Date.valueOf(after.lastStartDate()));
+            args.add(Date.valueOf(after.lastStartDate()));
+            args.add(after.lastId());
+        }
+        sql.append(" ORDER BY start_date, id LIMIT ?");
+        args.add(limit);
+        return new SubscriptionSearchQuery(sql.toString(), List.copyOf(args));
+    }
+}
@@ -0,0 +1,176 @@
+package max.iv.usersubscriptionservice.repository;
+
+import lombok.RequiredArgsConstructor;
+import max.iv.usersubscriptionservice.dto.UserVersionDto;
+import max.iv.usersubscriptionservice.dto.UserWithSubscriptionNamesDto;
+import max.iv.usersubscriptionservice.exception.InvalidRequestParameterException;
+import max.iv.usersubscriptionservice.models.User;
+import max.iv.usersubscriptionservice.models.enums.ServiceName;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.StringJoiner;
+import java.util.UUID;
+
+/**
+ * Set-based statements that go around the persistence context. Batches are sent with
+ * {@code reWriteBatchedInserts}, so the driver turns them into multi-row inserts.
+ */
+@Repository
+@RequiredArgsConstructor
+public class UserJdbcRepository {
+
+    private static final String INSERT_IGNORING_CONFLICTS_SQL =
+            "INSERT INTO users (id, username, email, password, first_name, last_name) " +
+            "VALUES (?, ?, ?, ?, ?, ?) " +
+            "ON CONFLICT DO NOTHING";
+
+    // Страница пользователей и её total за один запрос: count(*) OVER () считается до LIMIT,
+    // имена подписок агрегируются только для строк страницы, без дублирования колонок пользователя.
+    // Маркеры LIMIT/OFFSET подставляются отдельно: ? для JDBC, именованные параметры для R2DBC
+    private static final String PAGE_WITH_SUBSCRIPTION_NAMES_SQL =
+            "SELECT p.id, p.username, p.email, p.first_name, p.last_name, p.created_time, p.updated_time, " +
+            "p.total, COALESCE(n.service_names, '{}') AS service_names " +
+            "FROM (SELECT u.id, u.username, u.email, u.first_name, u.last_name, u.created_time, u.updated_time, " +
+            "%3$s AS total FROM users u ORDER BY %1$s LIMIT %4$s OFFSET %5$s) p " +
+            "LEFT JOIN LATERAL (SELECT array_agg(s.service_name ORDER BY s.service_name) AS service_names " +
+            "FROM subscriptions s WHERE s.user_id = p.id) n ON true " +
+            "ORDER BY %2$s";
+
+    static final String EXACT_TOTAL = "count(*) OVER ()";
+
+    static final String NO_TOTAL = "NULL::bigint";
+
+    static final String COUNT_SQL = "SELECT count(*) FROM users";
+
+    // Оценка планировщика: плотность строк из последнего ANALYZE, умноженная на текущее число страниц.
+    // reltuples = -1 — таблица ещё ни разу не анализировалась, оценки нет
+    static final String ESTIMATED_COUNT_SQL =
+            "SELECT CASE WHEN c.reltuples < 0 THEN NULL " +
+            "WHEN c.relpages = 0 THEN 0 " +
+            "ELSE (c.reltuples / c.relpages * (pg_relation_size(c.oid) / current_setting('block_size')::int))::bigint END " +
+            "FROM pg_class c WHERE c.oid = 'users'::regclass";
+
+    // Белый список сортировки: свойство сущности -> колонка, в ORDER BY не попадает пользовательский ввод
+    private static final Map<String, String> SORT_COLUMNS = Map.of(
+            "id", "id",
+            "username", "username",
+            "email", "email",
+            "firstName", "first_name",
+            "lastName", "last_name",
+            "createdAt", "created_time",
+            "updatedAt", "updated_time");
+
+    // Версия пользователя и его набора подписок одним коротким запросом по первичному и уникальному индексам
+    private static final String VERSION_SQL =
+            "SELECT u.updated_time, v.subscription_count, v.subscriptions_updated_time, v.subscription_ids_hash " +
+            "FROM users u CROSS JOIN LATERAL (" +
+            "SELECT count(*) AS subscription_count, max(s.updated_time) AS subscriptions_updated_time, " +
+            "COALESCE(sum(hashtext(s.id::text)), 0) AS subscription_ids_hash " +
+            "FROM subscriptions s WHERE s.user_id = u.id) v " +
+            "WHERE u.id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void insertIgnoringConflicts(List<User> users) {
+        jdbcTemplate.batchUpdate(INSERT_IGNORING_CONFLICTS_SQL, users, users.size(), (ps, user) -> {
+            ps.setObject(1, user.getId());
+            ps.setString(2, user.getUsername());
+            ps.setString(3, user.getEmail());
+            ps.setString(4, user.getPassword());
+            ps.setString(5, user.getFirstName());
+            ps.setString(6, user.getLastName());
+        });
+    }
+
+    public Page<UserWithSubscriptionNamesDto> findPageWithSubscriptionNames(Pageable pageable) {
+        long[] total = {-1};
+        List<UserWithSubscriptionNamesDto> content = jdbcTemplate.query(pageSql(pageable, EXACT_TOTAL, "?", "?"), (rs, rowNum) -> {
+            total[0] = rs.getLong("total");
+            return toUserWithSubscriptionNames(rs);
+        }, pageable.getPageSize(), pageable.getOffset());
+
+        // Для страницы за последней строкой окно не вернуло ни одной строки — total считается отдельно
+        if (content.isEmpty()) {
+            long count = pageable.getOffset() == 0 ? 0 : jdbcTemplate.queryForObject(COUNT_SQL, Long.class);
+            return new PageImpl<>(content, pageable, count);
+        }
+        return new PageImpl<>(content, pageable, total[0]);
+    }
+
+    /**
+     * Same single statement without the window count; {@code limit} may exceed the page size
+     * to detect a next page.
+     */
+    public List<UserWithSubscriptionNamesDto> findWithSubscriptionNames(Pageable pageable, int limit) {
+        return jdbcTemplate.query(pageSql(pageable, NO_TOTAL, "?", "?"), (rs, rowNum) -> toUserWithSubscriptionNames(rs),
+                limit, pageable.getOffset());
+    }
+
+    public Optional<Long> estimateCount() {
+        return Optional.ofNullable(jdbcTemplate.queryForObject(ESTIMATED_COUNT_SQL, Long.class));
+    }
+
+    static String pageSql(Pageable pageable, String total, String limitMarker, String offsetMarker) {
+        return PAGE_WITH_SUBSCRIPTION_NAMES_SQL.formatted(
+                orderBy(pageable.getSort(), "u."), orderBy(pageable.getSort(), "p."), total, limitMarker, offsetMarker);
+    }
+
+    private static String orderBy(Sort sort, String alias) {
+        StringJoiner orderBy = new StringJoiner(", ");
+        for (Sort.Order order : sort) {
+            String column = SORT_COLUMNS.get(order.getProperty());
+            if (column == null) {
+                throw new InvalidRequestParameterException("Unsupported sort property: " + order.getProperty());
+            }
+            String expression = order.isIgnoreCase() ? "lower(" + alias + column + ")" : alias + column;
+            orderBy.add(expression + (order.isAscending() ? " ASC" : " DESC"));
+        }
+        // id замыкает сортировку, чтобы порядок страниц был детерминированным
+        orderBy.add(alias + "id");
+        return orderBy.toString();
+    }
+
+    private static UserWithSubscriptionNamesDto toUserWithSubscriptionNames(ResultSet rs) throws SQLException {
+        List<String> subscriptionNames = toDisplayNames((String[]) rs.getArray("service_names").getArray());
+        return new UserWithSubscriptionNamesDto(
+                rs.getObject("id", UUID.class),
+                rs.getString("username"),
+                rs.getString("email"),
+                rs.getString("first_name"),
+                rs.getString("last_name"),
+                rs.getTimestamp("created_time").toLocalDateTime(),
+                rs.getTimestamp("updated_time").toLocalDateTime(),
+                subscriptionNames);
+    }
+
+    static List<String> toDisplayNames(String[] serviceNames) {
+        List<String> displayNames = new ArrayList<>(serviceNames.length);
+        for (String serviceName : serviceNames) {
+            displayNames.add(ServiceName.valueOf(serviceName).getDisplayName());
+        }
+        return displayNames;
+    }
+
+    public Optional<UserVersionDto> findVersion(UUID userId) {
+        return jdbcTemplate.query(VERSION_SQL, (rs, rowNum) -> {
+            Timestamp subscriptionsUpdatedAt = rs.getTimestamp("subscriptions_updated_time");
+            return new UserVersionDto(
+                    rs.getTimestamp("updated_time").toInstant(),
+                    rs.getLong("subscription_count"),
+                    subscriptionsUpdatedAt != null ? subscriptionsUpdatedAt.toInstant() : null,
+                    rs.getLong("subscription_ids_hash"));
+        }, userId).stream().findFirst();
+    }
+}
@@ -0,0 +1,14 @@
+package max.iv.usersubscriptionservice.repository;
+
+import max.iv.usersubscriptionservice.models.UserRow;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.UUID;
+
+/**
+ * Reactive read access to users; created only in the {@code reactive} profile, where R2DBC is configured.
+ */
+@Repository
+public interface UserR2dbcRepository extends R2dbcRepository<UserRow, UUID>, UserR2dbcRepositoryCustom {
+}
@@ -0,0 +1,26 @@
+package max.iv.usersubscriptionservice.repository;
+
+import max.iv.usersubscriptionservice.dto.UserWithSubscriptionNamesDto;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+
+public interface UserR2dbcRepositoryCustom {
+
+    /**
+     * Тот же единый запрос страницы, что и {@link UserJdbcRepository#findPageWithSubscriptionNames(Pageable)}.
+     */
+    Mono<Page<UserWithSubscriptionNamesDto>> findPageWithSubscriptionNames(Pageable pageable);
+
+    /**
+     * Страница без total; {@code limit} может превышать размер страницы, чтобы узнать о следующей.
+     */
+    Flux<UserWithSubscriptionNamesDto> findWithSubscriptionNames(Pageable pageable, int limit);
+
+    Mono<Long> estimateCount();
+
+    Mono<UserWithSubscriptionNamesDto> findWithSubscriptionNamesById(UUID userId);
+}
@@ -0,0 +1,94 @@
+package max.iv.usersubscriptionservice.repository;
+
+import io.r2dbc.spi.Readable;
+import lombok.RequiredArgsConstructor;
+import max.iv.usersubscriptionservice.dto.UserWithSubscriptionNamesDto;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@RequiredArgsConstructor
+public class UserR2dbcRepositoryCustomImpl implements UserR2dbcRepositoryCustom {
+
+    private static final String WITH_SUBSCRIPTION_NAMES_BY_ID_SQL =
+            "SELECT u.id, u.username, u.email, u.first_name, u.last_name, u.created_time, u.updated_time, " +
+            "COALESCE(n.service_names, '{}') AS service_names " +
+            "FROM users u " +
+            "LEFT JOIN LATERAL (SELECT array_agg(s.service_name ORDER BY s.service_name) AS service_names " +
+            "FROM subscriptions s WHERE s.user_id = u.id) n ON true " +
+            "WHERE u.id = :userId";
+
+    private final DatabaseClient databaseClient;
+
+    @Override
+    public Mono<Page<UserWithSubscriptionNamesDto>> findPageWithSubscriptionNames(Pageable pageable) {
+        String sql = UserJdbcRepository.pageSql(pageable, UserJdbcRepository.EXACT_TOTAL, ":limit", ":offset");
+        return databaseClient.sql(sql)
+                .bind("limit", pageable.getPageSize())
+                .bind("offset", pageable.getOffset())
+                .map(row -> new PageRow(toUserWithSubscriptionNames(row), row.get("total", Long.class)))
+                .all()
+                .collectList()
+                .flatMap(rows -> {
+                    List<UserWithSubscriptionNamesDto> content = rows.stream().map(PageRow::user).toList();
+                    if (!rows.isEmpty()) {
+                        return Mono.just(new PageImpl<>(content, pageable, rows.get(0).total()));
+                    }
+                    // Для страницы за последней строкой окно не вернуло ни одной строки — total считается отдельно
+                    Mono<Long> total = pageable.getOffset() == 0
+                            ? Mono.just(0L)
+                            : databaseClient.sql(UserJdbcRepository.COUNT_SQL).map(row -> row.get(0, Long.class)).one();
+                    return total.map(count -> new PageImpl<>(content, pageable, count));
+                });
+    }
+
+    @Override
+    public Flux<UserWithSubscriptionNamesDto> findWithSubscriptionNames(Pageable pageable, int limit) {
+        String sql = UserJdbcRepository.pageSql(pageable, UserJdbcRepository.NO_TOTAL, ":limit", ":offset");
+        return databaseClient.sql(sql)
+                .bind("limit", limit)
+                .bind("offset", pageable.getOffset())
+                .map(UserR2dbcRepositoryCustomImpl::toUserWithSubscriptionNames)
+                .all();
+    }
+
+    @Override
+    public Mono<Long> estimateCount() {
+        // NULL-оценка (таблица ещё не анализировалась) превращается в пустой Mono
+        return databaseClient.sql(UserJdbcRepository.ESTIMATED_COUNT_SQL)
+                .map(row -> Optional.ofNullable(row.get(0, Long.class)))
+                .one()
+                .flatMap(Mono::justOrEmpty);
+    }
+
+    @Override
+    public Mono<UserWithSubscriptionNamesDto> findWithSubscriptionNamesById(UUID userId) {
+        return databaseClient.sql(WITH_SUBSCRIPTION_NAMES_BY_ID_SQL)
+                .bind("userId", userId)
+                .map(UserR2dbcRepositoryCustomImpl::toUserWithSubscriptionNames)
+                .one();
+    }
+
+    private static UserWithSubscriptionNamesDto toUserWithSubscriptionNames(Readable row) {
+        return new UserWithSubscriptionNamesDto(
+                row.get("id", UUID.class),
+                row.get("username", String.class),
+                row.get("email", String.class),
+                row.get("first_name", String.class),
+                row.get("last_name", String.class),
+                row.get("created_time", LocalDateTime.class),
+                row.get("updated_time", LocalDateTime.class),
+                UserJdbcRepository.toDisplayNames(row.get("service_names", String[].class)));
+    }
+
+    private record PageRow(UserWithSubscriptionNamesDto user, Long total) {
+    }
+}
@@ -1,18 +1,25 @@
 package max.iv.usersubscriptionservice.repository;
 
+import jakarta.persistence.QueryHint;
+import max.iv.usersubscriptionservice.dto.UserResponseDto;
 import max.iv.usersubscriptionservice.models.User;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Collection;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 @Repository
-public interface UserRepository extends JpaRepository<User, UUID> {
+public interface UserRepository extends JpaRepository<User, UUID>, UserRepositoryCustom {
 
     Optional<User> findByUsername(String username);
 
@@ -22,12 +29,37 @@ public interface UserRepository extends JpaRepository<User, UUID> {
 
     boolean existsByEmail(String email);
 
+    @Query("SELECT u.username FROM User u WHERE u.username IN :usernames")
+    List<String> findExistingUsernames(@Param("usernames") Collection<String> usernames);
+
+    @Query("SELECT u.email FROM User u WHERE u.email IN :emails")
+    List<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+    @Query("SELECT u.id FROM User u WHERE u.id IN :ids")
+    List<UUID> findExistingIds(@Param("ids") Collection<UUID> ids);
+
+    @Query("SELECT new max.iv.usersubscriptionservice.dto.UserResponseDto(" +
+            "u.id, u.username, u.email, u.firstName, u.lastName, u.createdAt, u.updatedAt) " +
+            "FROM User u WHERE u.id = :userId")
+    Optional<UserResponseDto> findResponseDtoById(@Param("userId") UUID userId);
+
     @Query("SELECT u.id FROM User u")
     Page<UUID> findUserIds(Pageable pageable);
 
+    @Query("SELECT u.id FROM User u")
+    Slice<UUID> findUserIdSlice(Pageable pageable);
+
     @Query("SELECT DISTINCT u FROM User u LEFT JOIN FETCH u.subscriptions s WHERE u.id IN :userIds")
     List<User> findUsersWithSubscriptionsByIds(@Param("userIds") List<UUID> userIds);
 
     @Query("SELECT u FROM User u LEFT JOIN FETCH u.subscriptions WHERE u.id = :userId")
     Optional<User> findByIdWithSubscriptions(UUID userId);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("SELECT u FROM User u ORDER BY u.id")
+    Stream<User> streamAllOrderedById();
 }
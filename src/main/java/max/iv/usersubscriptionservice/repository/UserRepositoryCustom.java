@@ -0,0 +1,18 @@
+package max.iv.usersubscriptionservice.repository;
+
+import max.iv.usersubscriptionservice.dto.UserWithSubscriptionNamesDto;
+import max.iv.usersubscriptionservice.pagination.UserKeysetCursor;
+
+import java.util.List;
+import java.util.UUID;
+
+public interface UserRepositoryCustom {
+
+    List<UUID> findUserIdsAfter(UserKeysetCursor cursor, int limit);
+
+    /**
+     * Читает пользователей и имена их подписок кортежной проекцией, без загрузки сущностей.
+     * Результат идёт в порядке {@code userIds}; отсутствующие идентификаторы пропускаются.
+     */
+    List<UserWithSubscriptionNamesDto> findUsersWithSubscriptionNamesByIds(List<UUID> userIds);
+}
@@ -0,0 +1,97 @@
+package max.iv.usersubscriptionservice.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import max.iv.usersubscriptionservice.dto.UserWithSubscriptionNamesDto;
+import max.iv.usersubscriptionservice.models.enums.ServiceName;
+import max.iv.usersubscriptionservice.pagination.UserKeysetCursor;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+public class UserRepositoryCustomImpl implements UserRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<UUID> findUserIdsAfter(UserKeysetCursor cursor, int limit) {
+        String property = "u." + cursor.sortKey().getProperty();
+        boolean ascending = cursor.direction() == Sort.Direction.ASC;
+        String direction = ascending ? "ASC" : "DESC";
+
+        StringBuilder jpql = new StringBuilder("SELECT u.id FROM User u");
+        if (!cursor.isFirst()) {
+            // Сравнение кортежей позволяет Postgres искать по индексу (column, id) без OFFSET
+            jpql.append(" WHERE (").append(property).append(", u.id) ")
+                    .append(ascending ? ">" : "<")
+                    .append(" (:lastValue, :lastId)");
+        }
+        jpql.append(" ORDER BY ").append(property).append(' ').append(direction)
+                .append(", u.id ").append(direction);
+
+        TypedQuery<UUID> query = entityManager.createQuery(jpql.toString(), UUID.class)
+                .setMaxResults(limit);
+        if (!cursor.isFirst()) {
+            query.setParameter("lastValue", cursor.sortKey().parseValue(cursor.lastValue()));
+            query.setParameter("lastId", cursor.lastId());
+        }
+        return query.getResultList();
+    }
+
+    @Override
+    public List<UserWithSubscriptionNamesDto> findUsersWithSubscriptionNamesByIds(List<UUID> userIds) {
+        if (userIds.isEmpty()) {
+            return List.of();
+        }
+        List<Tuple> rows = entityManager.createQuery(
+                        "SELECT u.id AS id, u.username AS username, u.email AS email, " +
+                                "u.firstName AS firstName, u.lastName AS lastName, " +
+                                "u.createdAt AS createdAt, u.updatedAt AS updatedAt, s.serviceName AS serviceName " +
+                                "FROM User u LEFT JOIN u.subscriptions s WHERE u.id IN :userIds", Tuple.class)
+                .setParameter("userIds", userIds)
+                .getResultList();
+
+        // Строки join-а сворачиваются по пользователю; сущности не попадают в контекст персистентности
+        Map<UUID, UserRow> rowsById = new HashMap<>(userIds.size() * 2);
+        for (Tuple row : rows) {
+            UserRow userRow = rowsById.computeIfAbsent(row.get("id", UUID.class), id -> new UserRow(row));
+            ServiceName serviceName = row.get("serviceName", ServiceName.class);
+            if (serviceName != null) {
+                userRow.subscriptionNames().add(serviceName.getDisplayName());
+            }
+        }
+
+        List<UserWithSubscriptionNamesDto> result = new ArrayList<>(rowsById.size());
+        for (UUID userId : userIds) {
+            UserRow userRow = rowsById.get(userId);
+            if (userRow != null) {
+                result.add(userRow.toDto(userId));
+            }
+        }
+        return result;
+    }
+
+    private record UserRow(String username, String email, String firstName, String lastName,
+                           LocalDateTime createdAt, LocalDateTime updatedAt, List<String> subscriptionNames) {
+
+        UserRow(Tuple row) {
+            this(row.get("username", String.class), row.get("email", String.class),
+                    row.get("firstName", String.class), row.get("lastName", String.class),
+                    row.get("createdAt", LocalDateTime.class), row.get("updatedAt", LocalDateTime.class),
+                    new ArrayList<>());
+        }
+
+        UserWithSubscriptionNamesDto toDto(UUID id) {
+            return new UserWithSubscriptionNamesDto(id, username, email, firstName, lastName,
+                    createdAt, updatedAt, subscriptionNames);
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package max.iv.usersubscriptionservice.seed;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import max.iv.usersubscriptionservice.availability.UserAvailabilityFilter;
+import max.iv.usersubscriptionservice.statistics.SubscriptionPopularityCounter;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.LongStream;
+
+/**
+ * Loads a {@link SyntheticDataset} with {@code app.seed.mode=synthetic}. Users are split into chunks that
+ * a fixed pool of producer threads generates and streams with {@code COPY} (users, then their subscriptions)
+ * in one transaction per chunk, so each producer holds one pooled connection at a time. Afterwards the tables
+ * are analyzed, and the popularity counters and availability filters, which {@code COPY} bypasses, are rebuilt
+ * from the database.
+ * <p>
+ * A failed load keeps the chunks it committed and fails the startup. User ids depend only on the seed and the
+ * user's index, so the next start with the same seed finds them and resumes the load: users already present are
+ * skipped. A {@code users} table that holds none of the dataset's users is left alone.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SyntheticDataGenerator implements ApplicationRunner {
+
+    private static final String USERS_EXIST_SQL = "SELECT EXISTS (SELECT 1 FROM users)";
+
+    private static final String COUNT_EXISTING_USERS_SQL = "SELECT count(*) FROM users WHERE id = ANY(?)";
+
+    private static final String SELECT_EXISTING_USER_IDS_SQL = "SELECT id FROM users WHERE id = ANY(?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final SubscriptionPopularityCounter popularityCounter;
+
+    private final UserAvailabilityFilter availabilityFilter;
+
+    @Value("${app.seed.enabled:true}")
+    private boolean seedEnabled;
+
+    @Value("${app.seed.mode:demo}")
+    private String seedMode;
+
+    @Value("${app.seed.synthetic.seed:42}")
+    private long seed;
+
+    @Value("${app.seed.synthetic.users:1000000}")
+    private long users;
+
+    @Value("${app.seed.synthetic.subscriptions-per-user:2.0}")
+    private double subscriptionsPerUser;
+
+    @Value("${app.seed.synthetic.service-skew:1.5}")
+    private double serviceSkew;
+
+    @Value("${app.seed.synthetic.open-ended-ratio:0.4}")
+    private double openEndedRatio;
+
+    @Value("${app.seed.synthetic.history-days:1095}")
+    private int historyDays;
+
+    // Пусто — текущая дата; для воспроизводимости между днями задается явно
+    @Value("${app.seed.synthetic.reference-date:}")
+    private String referenceDate;
+
+    @Value("${app.seed.synthetic.producers:4}")
+    private int producers;
+
+    @Value("${app.seed.synthetic.chunk-size:10000}")
+    private int chunkSize;
+
+    public record Result(long users, long subscriptions, Duration elapsed) {
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!seedEnabled || !"synthetic".equals(seedMode)) {
+            return;
+        }
+        checkLoadParameters(producers, chunkSize);
+        LocalDate today = referenceDate.isBlank() ? LocalDate.now() : LocalDate.parse(referenceDate);
+        SyntheticDataset dataset = new SyntheticDataset(seed, users, subscriptionsPerUser, serviceSkew, openEndedRatio,
+                historyDays, today);
+        if (Boolean.TRUE.equals(jdbcTemplate.queryForObject(USERS_EXIST_SQL, Boolean.class))) {
+            // По первому пользователю каждого чанка видно, чьи это данные и сколько чанков уже загружено
+            long chunks = chunkCount(dataset, chunkSize);
+            UUID[] firstUserIds = LongStream.range(0, chunks)
+                    .mapToObj(chunk -> dataset.userId(chunk * chunkSize))
+                    .toArray(UUID[]::new);
+            Long loadedChunks = jdbcTemplate.queryForObject(COUNT_EXISTING_USERS_SQL, Long.class, (Object) firstUserIds);
+            Long existingUsers = jdbcTemplate.queryForObject("SELECT count(*) FROM users", Long.class);
+            if (loadedChunks == null || loadedChunks == 0) {
+                log.info("Database already contains users. Skipping synthetic data generation.");
+                return;
+            }
+            if (loadedChunks == chunks && existingUsers != null && existingUsers >= dataset.users()) {
+                log.info("Synthetic dataset (seed {}) is already loaded. Skipping synthetic data generation.", seed);
+                return;
+            }
+            log.warn("Found {} of {} chunks of an interrupted synthetic load (seed {}), resuming it",
+                    loadedChunks, chunks, seed);
+        }
+        generate(dataset, producers, chunkSize);
+    }
+
+    public Result generate(SyntheticDataset dataset, int producers, int chunkSize) {
+        checkLoadParameters(producers, chunkSize);
+        // Строки прерванного запуска уже в базе — каждый чанк проверяет, какие его пользователи загружены
+        boolean resume = Boolean.TRUE.equals(jdbcTemplate.queryForObject(USERS_EXIST_SQL, Boolean.class));
+        log.info("Generating {} users (seed {}) with {} producer(s), {} users per COPY chunk{}",
+                dataset.users(), dataset.seed(), producers, chunkSize, resume ? ", skipping loaded users" : "");
+        long started = System.nanoTime();
+        AtomicLong processedUsers = new AtomicLong();
+        AtomicLong loadedUsers = new AtomicLong();
+        AtomicLong loadedSubscriptions = new AtomicLong();
+        long chunks = chunkCount(dataset, chunkSize);
+        long logEvery = Math.max(chunks / 10, 1);
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (long chunk = 0; chunk < chunks; chunk++) {
+                long from = chunk * chunkSize;
+                long to = Math.min(from + chunkSize, dataset.users());
+                boolean logProgress = (chunk + 1) % logEvery == 0;
+                futures.add(executor.submit(() -> {
+                    ChunkLoad load = copyChunk(dataset, from, to, resume);
+                    loadedUsers.addAndGet(load.users());
+                    loadedSubscriptions.addAndGet(load.subscriptions());
+                    long done = processedUsers.addAndGet(to - from);
+                    if (logProgress) {
+                        log.info("Loaded {}/{} users", done, dataset.users());
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Synthetic data generation interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(String.format("Synthetic data generation failed after loading %d users "
+                    + "in this run. Loaded chunks are kept; restart with the same seed to resume.",
+                    loadedUsers.get()), e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Статистика планировщика сразу под новый объем, без ожидания autovacuum
+        jdbcTemplate.execute("ANALYZE users");
+        jdbcTemplate.execute("ANALYZE subscriptions");
+        popularityCounter.reconcile();
+        availabilityFilter.rebuild();
+
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - started);
+        long rows = loadedUsers.get() + loadedSubscriptions.get();
+        log.info("Generated {} users and {} subscriptions in {} ms ({} rows/s)", loadedUsers.get(),
+                loadedSubscriptions.get(), elapsed.toMillis(), rows * 1000 / Math.max(elapsed.toMillis(), 1));
+        return new Result(loadedUsers.get(), loadedSubscriptions.get(), elapsed);
+    }
+
+    private static void checkLoadParameters(int producers, int chunkSize) {
+        if (producers < 1 || chunkSize < 1) {
+            throw new IllegalArgumentException(String.format("Synthetic data generation needs producers >= 1 and "
+                    + "chunk-size >= 1, got producers=%d, chunk-size=%d", producers, chunkSize));
+        }
+    }
+
+    private static long chunkCount(SyntheticDataset dataset, int chunkSize) {
+        return (dataset.users() + chunkSize - 1) / chunkSize;
+    }
+
+    private ChunkLoad copyChunk(SyntheticDataset dataset, long from, long to, boolean resume) {
+        Set<UUID> existing = resume ? existingUserIds(dataset, from, to) : Set.of();
+        StringBuilder usersCopy = new StringBuilder();
+        StringBuilder subscriptionsCopy = new StringBuilder();
+        long users = 0;
+        long subscriptions = 0;
+        // В COPY идут отрезки подряд идущих пользователей, которых еще нет в базе
+        long rangeStart = from;
+        for (long index = from; index <= to; index++) {
+            if (index == to || (!existing.isEmpty() && existing.contains(dataset.userId(index)))) {
+                if (rangeStart < index) {
+                    subscriptions += dataset.appendUsers(rangeStart, index, usersCopy, subscriptionsCopy);
+                    users += index - rangeStart;
+                }
+                rangeStart = index + 1;
+            }
+        }
+        if (users == 0) {
+            return new ChunkLoad(0, 0);
+        }
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            CopyManager copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+            try {
+                copyManager.copyIn(SyntheticDataset.USERS_COPY_SQL, new StringReader(usersCopy.toString()));
+                copyManager.copyIn(SyntheticDataset.SUBSCRIPTIONS_COPY_SQL,
+                        new StringReader(subscriptionsCopy.toString()));
+            } catch (IOException e) {
+                throw new IllegalStateException("COPY stream failed", e);
+            }
+            return null;
+        }));
+        return new ChunkLoad(users, subscriptions);
+    }
+
+    private Set<UUID> existingUserIds(SyntheticDataset dataset, long from, long to) {
+        UUID[] ids = LongStream.range(from, to).mapToObj(dataset::userId).toArray(UUID[]::new);
+        return new HashSet<>(jdbcTemplate.queryForList(SELECT_EXISTING_USER_IDS_SQL, UUID.class, (Object) ids));
+    }
+
+    private record ChunkLoad(long users, long subscriptions) {
+    }
+}
@@ -0,0 +1,171 @@
+package max.iv.usersubscriptionservice.seed;
+
+import max.iv.usersubscriptionservice.models.enums.ServiceName;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+/**
+ * Deterministic description of a synthetic dataset. Every user and its subscriptions are derived only
+ * from the seed and the user's index, so the same parameters produce the same rows whatever the number
+ * of producers or the chunk boundaries. Rows are written in the text format of {@code COPY ... FROM STDIN}.
+ * <p>
+ * Services are picked with Zipf weights in {@link ServiceName} declaration order ({@code serviceSkew} is the
+ * exponent, 0 is uniform); the number of subscriptions per user is geometric with mean about
+ * {@code subscriptionsPerUser}, capped at the number of services.
+ *
+ * @param seed                 seed of all random choices
+ * @param users                number of users
+ * @param subscriptionsPerUser mean number of subscriptions per user
+ * @param serviceSkew          Zipf exponent of the service popularity
+ * @param openEndedRatio       share of subscriptions without an end date
+ * @param historyDays          how far back user registrations and subscription starts go
+ * @param referenceDate        "today" of the dataset; start dates lie before it, end dates after it
+ */
+public record SyntheticDataset(long seed, long users, double subscriptionsPerUser, double serviceSkew,
+                               double openEndedRatio, int historyDays, LocalDate referenceDate) {
+
+    public static final String USERS_COPY_SQL =
+            "COPY users (id, username, email, password, first_name, last_name, created_time, updated_time) FROM STDIN";
+
+    public static final String SUBSCRIPTIONS_COPY_SQL =
+            "COPY subscriptions (id, service_name, start_date, end_date, user_id, created_time, updated_time) FROM STDIN";
+
+    private static final ServiceName[] SERVICE_NAMES = ServiceName.values();
+
+    private static final String[] FIRST_NAMES = {"Alexander", "Maria", "Ivan", "Anna", "Dmitry", "Elena", "Sergey",
+            "Olga", "Andrey", "Natalia", "Mikhail", "Tatiana", "Pavel", "Irina", "Nikolay", "Svetlana"};
+
+    private static final String[] LAST_NAMES = {"Ivanov", "Smirnov", "Kuznetsov", "Popov", "Vasiliev", "Petrov",
+            "Sokolov", "Mikhailov", "Novikov", "Fedorov", "Morozov", "Volkov", "Alekseev", "Lebedev", "Semenov"};
+
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ssxxx");
+
+    private static final int SECONDS_PER_DAY = 86_400;
+
+    public SyntheticDataset {
+        if (users < 0 || subscriptionsPerUser < 0 || serviceSkew < 0 || historyDays < 1
+                || openEndedRatio < 0 || openEndedRatio > 1) {
+            throw new IllegalArgumentException("Invalid synthetic dataset parameters");
+        }
+    }
+
+    /**
+     * Id of the user with the given index, the same as written by {@link #appendUsers}.
+     */
+    public UUID userId(long index) {
+        return uuid(random(index));
+    }
+
+    /**
+     * Appends users {@code [from, to)} and their subscriptions to the two COPY buffers.
+     *
+     * @return number of subscriptions appended
+     */
+    public long appendUsers(long from, long to, StringBuilder usersCopy, StringBuilder subscriptionsCopy) {
+        double[] weights = serviceWeights();
+        // Параметр геометрического распределения с заданным средним
+        double continueProbability = subscriptionsPerUser / (1 + subscriptionsPerUser);
+        long subscriptions = 0;
+        for (long index = from; index < to; index++) {
+            SplittableRandom random = random(index);
+            UUID userId = uuid(random);
+            String firstName = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+            String lastName = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+            String username = firstName.toLowerCase() + "." + lastName.toLowerCase() + "." + index;
+            int registeredDaysAgo = random.nextInt(historyDays);
+            String userCreated = timestamp(referenceDate.minusDays(registeredDaysAgo), random);
+            usersCopy.append(userId).append('\t')
+                    .append(username).append('\t')
+                    .append(username).append("@example.com\t")
+                    .append("password\t")
+                    .append(firstName).append('\t')
+                    .append(lastName).append('\t')
+                    .append(userCreated).append('\t')
+                    .append(userCreated).append('\n');
+
+            int count = 0;
+            while (count < SERVICE_NAMES.length && random.nextDouble() < continueProbability) {
+                count++;
+            }
+            double[] remaining = weights.clone();
+            for (int i = 0; i < count; i++) {
+                ServiceName serviceName = SERVICE_NAMES[pick(remaining, random)];
+                LocalDate startDate = referenceDate.minusDays(random.nextInt(registeredDaysAgo + 1));
+                String endDate = random.nextDouble() < openEndedRatio
+                        ? "\\N"
+                        : referenceDate.plusDays(1 + random.nextInt(365)).toString();
+                String subscriptionCreated = timestamp(startDate, random);
+                subscriptionsCopy.append(uuid(random)).append('\t')
+                        .append(serviceName.name()).append('\t')
+                        .append(startDate).append('\t')
+                        .append(endDate).append('\t')
+                        .append(userId).append('\t')
+                        .append(subscriptionCreated).append('\t')
+                        .append(subscriptionCreated).append('\n');
+            }
+            subscriptions += count;
+        }
+        return subscriptions;
+    }
+
+    private SplittableRandom random(long index) {
+        return new SplittableRandom(mix(mix(seed) + index));
+    }
+
+    private double[] serviceWeights() {
+        double[] weights = new double[SERVICE_NAMES.length];
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] = 1 / Math.pow(i + 1, serviceSkew);
+        }
+        return weights;
+    }
+
+    // Выбор без возвращения: выбранный сервис получает нулевой вес
+    private static int pick(double[] weights, SplittableRandom random) {
+        double total = 0;
+        for (double weight : weights) {
+            total += weight;
+        }
+        double target = random.nextDouble() * total;
+        int last = 0;
+        for (int i = 0; i < weights.length; i++) {
+            if (weights[i] == 0) {
+                continue;
+            }
+            last = i;
+            target -= weights[i];
+            if (target < 0) {
+                break;
+            }
+        }
+        weights[last] = 0;
+        return last;
+    }
+
+    // Финализатор MurmurHash3: соседние индексы дают несвязанные начальные состояния. SplittableRandom
+    // прибавляет к состоянию постоянный шаг, поэтому при близких seed потоки соседних пользователей сдвигались бы
+    // друг относительно друга и повторяли id
+    private static long mix(long value) {
+        value = (value ^ (value >>> 33)) * 0xFF51AFD7ED558CCDL;
+        value = (value ^ (value >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return value ^ (value >>> 33);
+    }
+
+    private static UUID uuid(SplittableRandom random) {
+        // Биты версии 4 и варианта IETF, как у gen_random_uuid()
+        long mostSigBits = (random.nextLong() & 0xFFFFFFFFFFFF0FFFL) | 0x0000000000004000L;
+        long leastSigBits = (random.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(mostSigBits, leastSigBits);
+    }
+
+    private static String timestamp(LocalDate date, SplittableRandom random) {
+        return date.atTime(LocalTime.ofSecondOfDay(random.nextInt(SECONDS_PER_DAY)))
+                .atOffset(ZoneOffset.UTC)
+                .format(TIMESTAMP);
+    }
+}
@@ -0,0 +1,8 @@
+package max.iv.usersubscriptionservice.service;
+
+import max.iv.usersubscriptionservice.dto.ChangeFeedDto;
+
+public interface ChangeFeedService {
+
+    ChangeFeedDto getChanges(String since, int limit);
+}
@@ -0,0 +1,22 @@
+package max.iv.usersubscriptionservice.service;
+
+import max.iv.usersubscriptionservice.dto.SliceDto;
+import max.iv.usersubscriptionservice.dto.SubscriptionResponseDto;
+import max.iv.usersubscriptionservice.dto.UserResponseDto;
+import max.iv.usersubscriptionservice.dto.UserWithSubscriptionNamesDto;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.UUID;
+
+public interface ReactiveReadService {
+
+    Mono<UserResponseDto> getUserById(UUID userId);
+    Mono<UserWithSubscriptionNamesDto> getUserByIdWithSubscriptions(UUID userId);
+    Mono<List<SubscriptionResponseDto>> getUserSubscriptions(UUID userId);
+    Mono<Page<UserWithSubscriptionNamesDto>> getAllUsersWithSubscriptions(Pageable pageable);
+    Mono<Page<UserWithSubscriptionNamesDto>> getAllUsersWithEstimatedCount(Pageable pageable);
+    Mono<SliceDto<UserWithSubscriptionNamesDto>> getUsersWithSubscriptionsSlice(Pageable pageable);
+}
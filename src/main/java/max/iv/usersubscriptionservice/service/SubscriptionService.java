@@ -1,16 +1,25 @@
 package max.iv.usersubscriptionservice.service;
 
+import max.iv.usersubscriptionservice.dto.CursorPageDto;
+import max.iv.usersubscriptionservice.dto.SubscriptionBatchItemDto;
+import max.iv.usersubscriptionservice.dto.SubscriptionBatchResultDto;
 import max.iv.usersubscriptionservice.dto.SubscriptionCreateRequestDto;
 import max.iv.usersubscriptionservice.dto.SubscriptionResponseDto;
 import max.iv.usersubscriptionservice.dto.TopSubscriptionDto;
+import max.iv.usersubscriptionservice.models.enums.ServiceName;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.UUID;
 
 public interface SubscriptionService {
 
     SubscriptionResponseDto addSubscriptionToUser(UUID userId, SubscriptionCreateRequestDto subscriptionCreateDto);
+    SubscriptionBatchResultDto addSubscriptionsInBatch(List<SubscriptionBatchItemDto> items);
     List<SubscriptionResponseDto> getUserSubscriptions(UUID userId);
     void removeSubscriptionFromUser(UUID userId, UUID subscriptionId);
-    List<TopSubscriptionDto> getTop3PopularSubscriptions();
+    CursorPageDto<SubscriptionResponseDto> searchSubscriptions(ServiceName serviceName, LocalDate activeOn,
+                                                               LocalDate startedAfter, LocalDate endsBefore,
+                                                               String cursor, int size);
+    List<TopSubscriptionDto> getTopPopularSubscriptions(Integer limit);
 }
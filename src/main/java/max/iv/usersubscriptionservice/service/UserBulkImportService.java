@@ -0,0 +1,11 @@
+package max.iv.usersubscriptionservice.service;
+
+import max.iv.usersubscriptionservice.dto.UserBulkImportResultDto;
+import max.iv.usersubscriptionservice.dto.UserCreateRequestDto;
+
+import java.util.Iterator;
+
+public interface UserBulkImportService {
+
+    UserBulkImportResultDto importUsers(Iterator<UserCreateRequestDto> users);
+}
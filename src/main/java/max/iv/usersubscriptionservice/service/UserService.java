@@ -1,20 +1,33 @@
 package max.iv.usersubscriptionservice.service;
 
+import max.iv.usersubscriptionservice.dto.CursorPageDto;
+import max.iv.usersubscriptionservice.dto.SliceDto;
+import max.iv.usersubscriptionservice.dto.UserAvailabilityDto;
 import max.iv.usersubscriptionservice.dto.UserCreateRequestDto;
 import max.iv.usersubscriptionservice.dto.UserResponseDto;
 import max.iv.usersubscriptionservice.dto.UserUpdateRequestDto;
+import max.iv.usersubscriptionservice.dto.UserVersionDto;
 import max.iv.usersubscriptionservice.dto.UserWithSubscriptionNamesDto;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 
+import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 public interface UserService {
 
     UserResponseDto createUser(UserCreateRequestDto userCreateDto);
     UserResponseDto getUserById(UUID userId);
+    Optional<UserVersionDto> getUserVersion(UUID userId);
     UserResponseDto updateUser(UUID userId, UserUpdateRequestDto userUpdateDto);
     void deleteUser(UUID userId);
     Page<UserWithSubscriptionNamesDto> getAllUsersWithSubscriptions(Pageable pageable);
+    Page<UserWithSubscriptionNamesDto> getAllUsersWithEstimatedCount(Pageable pageable);
+    SliceDto<UserWithSubscriptionNamesDto> getUsersWithSubscriptionsSlice(Pageable pageable);
+    CursorPageDto<UserWithSubscriptionNamesDto> getUsersWithSubscriptionsByCursor(String cursor, Sort sort, int size);
     UserWithSubscriptionNamesDto getUserByIdWithSubscriptions(UUID userId);
+    long exportUsersWithSubscriptions(Consumer<UserWithSubscriptionNamesDto> consumer);
+    UserAvailabilityDto checkAvailability(String username, String email);
 }
@@ -0,0 +1,53 @@
+package max.iv.usersubscriptionservice.service.impliment;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import max.iv.usersubscriptionservice.dto.ChangeDto;
+import max.iv.usersubscriptionservice.dto.ChangeFeedDto;
+import max.iv.usersubscriptionservice.exception.ChangeFeedTokenExpiredException;
+import max.iv.usersubscriptionservice.exception.InvalidRequestParameterException;
+import max.iv.usersubscriptionservice.pagination.ChangeFeedToken;
+import max.iv.usersubscriptionservice.repository.ChangeLogJdbcRepository;
+import max.iv.usersubscriptionservice.repository.ChangeLogJdbcRepository.FeedEntry;
+import max.iv.usersubscriptionservice.service.ChangeFeedService;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ChangeFeedServiceImpl implements ChangeFeedService {
+
+    private static final int MAX_LIMIT = 1000;
+
+    private final ChangeLogJdbcRepository changeLogJdbcRepository;
+
+    @Override
+    @Transactional(readOnly = true)
+    public ChangeFeedDto getChanges(String since, int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new InvalidRequestParameterException("Limit must be between 1 and " + MAX_LIMIT + ", got: " + limit);
+        }
+        ChangeFeedToken position = (since == null || since.isBlank())
+                ? ChangeFeedToken.START
+                : ChangeFeedToken.decode(since);
+        log.info("Fetching up to {} changes after transaction {}, entry {}", limit, position.txId(), position.id());
+
+        // Лишняя строка сверх лимита отвечает на вопрос, есть ли уже следующие изменения
+        List<FeedEntry> entries = changeLogJdbcRepository.findAfter(position, limit + 1);
+        // Граница читается после строк: очистка, завершившаяся между запросами, тоже будет замечена
+        if (position.isBefore(changeLogJdbcRepository.findPrunedPosition())) {
+            log.warn("Change feed token (transaction {}, entry {}) is older than the retained log", position.txId(), position.id());
+            throw new ChangeFeedTokenExpiredException(
+                    "Changes after this token were pruned; reload the data and continue from resyncToken",
+                    changeLogJdbcRepository.findHead().encode());
+        }
+        boolean hasMore = entries.size() > limit;
+        List<FeedEntry> served = hasMore ? entries.subList(0, limit) : entries;
+        ChangeFeedToken next = served.isEmpty() ? position : served.get(served.size() - 1).position();
+        List<ChangeDto> changes = served.stream().map(FeedEntry::change).toList();
+        return new ChangeFeedDto(changes, next.encode(), hasMore);
+    }
+}
@@ -0,0 +1,122 @@
+package max.iv.usersubscriptionservice.service.impliment;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import max.iv.usersubscriptionservice.dto.SliceDto;
+import max.iv.usersubscriptionservice.dto.SubscriptionResponseDto;
+import max.iv.usersubscriptionservice.dto.UserResponseDto;
+import max.iv.usersubscriptionservice.dto.UserWithSubscriptionNamesDto;
+import max.iv.usersubscriptionservice.exception.ResourceNotFoundException;
+import max.iv.usersubscriptionservice.mapper.SubscriptionMapper;
+import max.iv.usersubscriptionservice.mapper.UserMapper;
+import max.iv.usersubscriptionservice.repository.SubscriptionR2dbcRepository;
+import max.iv.usersubscriptionservice.repository.UserR2dbcRepository;
+import max.iv.usersubscriptionservice.service.ReactiveReadService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Read side of the user and subscription API on R2DBC: the same statements and DTOs as the servlet
+ * services, but a request holds neither a thread nor a connection while Postgres is working.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveReadServiceImpl implements ReactiveReadService {
+
+    private final UserR2dbcRepository userR2dbcRepository;
+
+    private final SubscriptionR2dbcRepository subscriptionR2dbcRepository;
+
+    private final UserMapper userMapper;
+
+    private final SubscriptionMapper subscriptionMapper;
+
+    @Override
+    public Mono<UserResponseDto> getUserById(UUID userId) {
+        log.info("Fetching user by ID: {}", userId);
+        return userR2dbcRepository.findById(userId)
+                .map(userMapper::toUserResponseDto)
+                .switchIfEmpty(userNotFound(userId));
+    }
+
+    @Override
+    public Mono<UserWithSubscriptionNamesDto> getUserByIdWithSubscriptions(UUID userId) {
+        log.info("Fetching user by ID with subscriptions: {}", userId);
+        return userR2dbcRepository.findWithSubscriptionNamesById(userId)
+                .switchIfEmpty(userNotFound(userId));
+    }
+
+    @Override
+    public Mono<List<SubscriptionResponseDto>> getUserSubscriptions(UUID userId) {
+        log.info("Fetching subscriptions for user ID: {}", userId);
+        return subscriptionR2dbcRepository.findByUserId(userId)
+                .map(subscriptionMapper::toSubscriptionResponseDto)
+                .collectList()
+                // Существование пользователя проверяется только для пустого результата: непустой список его уже доказывает
+                .flatMap(subscriptions -> subscriptions.isEmpty()
+                        ? userR2dbcRepository.existsById(userId)
+                                .flatMap(exists -> exists ? Mono.just(subscriptions) : userNotFound(userId))
+                        : Mono.just(subscriptions));
+    }
+
+    @Override
+    public Mono<Page<UserWithSubscriptionNamesDto>> getAllUsersWithSubscriptions(Pageable pageable) {
+        log.info("Fetching all users with their subscriptions, page: {}, size: {}",
+                pageable.getPageNumber(), pageable.getPageSize());
+        return userR2dbcRepository.findPageWithSubscriptionNames(pageable);
+    }
+
+    @Override
+    public Mono<Page<UserWithSubscriptionNamesDto>> getAllUsersWithEstimatedCount(Pageable pageable) {
+        log.info("Fetching all users with their subscriptions and estimated total, page: {}, size: {}",
+                pageable.getPageNumber(), pageable.getPageSize());
+        Mono<Long> estimate = userR2dbcRepository.estimateCount().switchIfEmpty(userR2dbcRepository.count());
+        return sliceUsersWithSubscriptions(pageable).zipWith(estimate, (slice, estimated) -> {
+            // Оценка из статистики может отставать от таблицы, поэтому сводится с тем, что видно по самой странице
+            long seen = pageable.getOffset() + slice.content().size();
+            long total;
+            if (slice.hasNext()) {
+                total = Math.max(estimated, seen + 1);
+            } else if (slice.content().isEmpty()) {
+                total = Math.min(estimated, pageable.getOffset());
+            } else {
+                total = seen;
+            }
+            return new PageImpl<>(slice.content(), pageable, total);
+        });
+    }
+
+    @Override
+    public Mono<SliceDto<UserWithSubscriptionNamesDto>> getUsersWithSubscriptionsSlice(Pageable pageable) {
+        log.info("Fetching users with their subscriptions without total, page: {}, size: {}",
+                pageable.getPageNumber(), pageable.getPageSize());
+        return sliceUsersWithSubscriptions(pageable);
+    }
+
+    private Mono<SliceDto<UserWithSubscriptionNamesDto>> sliceUsersWithSubscriptions(Pageable pageable) {
+        int size = pageable.getPageSize();
+        // Лишняя строка сверх страницы отвечает на вопрос о следующей странице без count(*)
+        return userR2dbcRepository.findWithSubscriptionNames(pageable, size + 1)
+                .collectList()
+                .map(rows -> {
+                    boolean hasNext = rows.size() > size;
+                    return new SliceDto<>(hasNext ? rows.subList(0, size) : rows, pageable.getPageNumber(), size, hasNext);
+                });
+    }
+
+    private static <T> Mono<T> userNotFound(UUID userId) {
+        return Mono.defer(() -> {
+            log.warn("User not found with ID: {}", userId);
+            return Mono.error(new ResourceNotFoundException("User not found with ID: " + userId));
+        });
+    }
+}
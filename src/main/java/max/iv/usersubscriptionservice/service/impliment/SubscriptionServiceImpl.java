@@ -2,22 +2,43 @@ package max.iv.usersubscriptionservice.service.impliment;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import max.iv.usersubscriptionservice.cache.UserSubscriptionsCache;
+import max.iv.usersubscriptionservice.dto.CursorPageDto;
+import max.iv.usersubscriptionservice.dto.SubscriptionBatchItemDto;
+import max.iv.usersubscriptionservice.dto.SubscriptionBatchItemResultDto;
+import max.iv.usersubscriptionservice.dto.SubscriptionBatchResultDto;
 import max.iv.usersubscriptionservice.dto.SubscriptionCreateRequestDto;
 import max.iv.usersubscriptionservice.dto.SubscriptionResponseDto;
 import max.iv.usersubscriptionservice.dto.TopSubscriptionDto;
 import max.iv.usersubscriptionservice.exception.DuplicateResourceException;
+import max.iv.usersubscriptionservice.exception.InvalidRequestParameterException;
 import max.iv.usersubscriptionservice.exception.ResourceNotFoundException;
 import max.iv.usersubscriptionservice.mapper.SubscriptionMapper;
 import max.iv.usersubscriptionservice.models.Subscription;
-import max.iv.usersubscriptionservice.models.User;
 import max.iv.usersubscriptionservice.models.enums.ServiceName;
+import max.iv.usersubscriptionservice.pagination.SubscriptionKeysetCursor;
+import max.iv.usersubscriptionservice.repository.SubscriptionJdbcRepository;
 import max.iv.usersubscriptionservice.repository.SubscriptionRepository;
+import max.iv.usersubscriptionservice.repository.SubscriptionSearchQuery;
 import max.iv.usersubscriptionservice.repository.UserRepository;
 import max.iv.usersubscriptionservice.service.SubscriptionService;
+import max.iv.usersubscriptionservice.statistics.SubscriptionPopularityCounter;
+import max.iv.usersubscriptionservice.util.DataIntegrityViolations;
+import max.iv.usersubscriptionservice.validation.SubscriptionBatchItemValidator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -26,48 +47,179 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class SubscriptionServiceImpl implements SubscriptionService {
 
+    private static final int MAX_SEARCH_PAGE_SIZE = 100;
+
     private final SubscriptionRepository subscriptionRepository;
 
     private final UserRepository userRepository;
 
     private final SubscriptionMapper subscriptionMapper;
 
+    private final SubscriptionPopularityCounter popularityCounter;
+
+    private final SubscriptionJdbcRepository subscriptionJdbcRepository;
+
+    private final SubscriptionBatchItemValidator batchItemValidator;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final UserSubscriptionsCache userSubscriptionsCache;
+
+    @Value("${subscriptions.top.default-limit:3}")
+    private int defaultTopLimit;
+
+    @Value("${subscriptions.batch.chunk-size:1000}")
+    private int batchChunkSize;
 
     @Override
     @Transactional
     public SubscriptionResponseDto addSubscriptionToUser(UUID userId, SubscriptionCreateRequestDto subscriptionCreateDto) {
         log.info("Adding subscription {} to user ID: {}", subscriptionCreateDto.serviceName(), userId);
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> {
-                    log.warn("User not found for adding subscription, ID: {}", userId);
-                    return new ResourceNotFoundException("User not found with ID: " + userId);
-                });
-        boolean alreadySubscribed = subscriptionRepository.findByUserIdAndServiceName(userId, subscriptionCreateDto.serviceName())
-                .isPresent();
-        if (alreadySubscribed) {
-            log.warn("User {} already subscribed to {}", userId, subscriptionCreateDto.serviceName());
-            throw new DuplicateResourceException("User is already subscribed to " + subscriptionCreateDto.serviceName().getDisplayName());
+        // Без предварительных проверок: дубликат отсекает уникальный индекс, отсутствие пользователя — внешний ключ
+        Subscription subscription = subscriptionMapper.toSubscription(subscriptionCreateDto,
+                userRepository.getReferenceById(userId));
+        Subscription savedSubscription;
+        try {
+            savedSubscription = subscriptionJdbcRepository.insertIfAbsent(subscription)
+                    .orElseThrow(() -> {
+                        log.warn("User {} already subscribed to {}", userId, subscriptionCreateDto.serviceName());
+                        return new DuplicateResourceException("User is already subscribed to "
+                                + subscriptionCreateDto.serviceName().getDisplayName());
+                    });
+        } catch (DataIntegrityViolationException e) {
+            if (DataIntegrityViolations.isForeignKeyViolation(e)) {
+                log.warn("User not found for adding subscription, ID: {}", userId);
+                throw new ResourceNotFoundException("User not found with ID: " + userId);
+            }
+            throw e;
         }
-
-        Subscription subscription = subscriptionMapper.toSubscription(subscriptionCreateDto, user);
-        Subscription savedSubscription = subscriptionRepository.save(subscription);
+        popularityCounter.recordAdded(savedSubscription.getServiceName());
+        userSubscriptionsCache.evict(userId);
         log.info("Subscription {} added successfully to user ID: {}, subscription ID: {}",
                 savedSubscription.getServiceName(), userId, savedSubscription.getId());
         return subscriptionMapper.toSubscriptionResponseDto(savedSubscription);
     }
 
+    @Override
+    public SubscriptionBatchResultDto addSubscriptionsInBatch(List<SubscriptionBatchItemDto> items) {
+        log.info("Adding {} subscriptions in batch, chunk size: {}", items.size(), batchChunkSize);
+        SubscriptionBatchItemResultDto[] results = new SubscriptionBatchItemResultDto[items.size()];
+        Set<UserServiceKey> requested = new HashSet<>();
+        List<Integer> chunk = new ArrayList<>(batchChunkSize);
+
+        for (int index = 0; index < items.size(); index++) {
+            SubscriptionBatchItemDto item = items.get(index);
+            Map<String, String> validationErrors = batchItemValidator.validate(item);
+            if (!validationErrors.isEmpty()) {
+                results[index] = failedItem(index, item, SubscriptionBatchItemResultDto.Status.INVALID,
+                        validationErrors.entrySet().stream()
+                                .map(error -> error.getKey() + ": " + error.getValue())
+                                .collect(Collectors.joining("; ")));
+                continue;
+            }
+            if (!requested.add(new UserServiceKey(item.userId(), item.serviceName()))) {
+                results[index] = failedItem(index, item, SubscriptionBatchItemResultDto.Status.ALREADY_SUBSCRIBED,
+                        "Subscription to " + item.serviceName().getDisplayName() + " is duplicated within the request");
+                continue;
+            }
+            chunk.add(index);
+            if (chunk.size() == batchChunkSize) {
+                addSubscriptionsChunk(items, chunk, results);
+                chunk.clear();
+            }
+        }
+        addSubscriptionsChunk(items, chunk, results);
+
+        List<SubscriptionBatchItemResultDto> resultList = Arrays.asList(results);
+        int created = (int) resultList.stream()
+                .filter(result -> result.status() == SubscriptionBatchItemResultDto.Status.CREATED)
+                .count();
+        log.info("Batch subscription creation finished: received {}, created {}, failed {}",
+                items.size(), created, items.size() - created);
+        return new SubscriptionBatchResultDto(items.size(), created, items.size() - created, resultList);
+    }
+
+    private void addSubscriptionsChunk(List<SubscriptionBatchItemDto> items, List<Integer> chunk,
+                                       SubscriptionBatchItemResultDto[] results) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            Set<UUID> userIds = chunk.stream().map(index -> items.get(index).userId()).collect(Collectors.toSet());
+            Set<ServiceName> serviceNames = chunk.stream().map(index -> items.get(index).serviceName()).collect(Collectors.toSet());
+            Set<UUID> existingUserIds = new HashSet<>(userRepository.findExistingIds(userIds));
+            Set<UserServiceKey> existingSubscriptions = subscriptionRepository.findUserServicePairs(userIds, serviceNames).stream()
+                    .map(row -> new UserServiceKey((UUID) row[0], (ServiceName) row[1]))
+                    .collect(Collectors.toSet());
+
+            List<Subscription> toInsert = new ArrayList<>(chunk.size());
+            List<Integer> insertedIndexes = new ArrayList<>(chunk.size());
+            for (int index : chunk) {
+                SubscriptionBatchItemDto item = items.get(index);
+                if (!existingUserIds.contains(item.userId())) {
+                    results[index] = failedItem(index, item, SubscriptionBatchItemResultDto.Status.USER_NOT_FOUND,
+                            "User not found with ID: " + item.userId());
+                } else if (existingSubscriptions.contains(new UserServiceKey(item.userId(), item.serviceName()))) {
+                    results[index] = failedItem(index, item, SubscriptionBatchItemResultDto.Status.ALREADY_SUBSCRIBED,
+                            "User is already subscribed to " + item.serviceName().getDisplayName());
+                } else {
+                    Subscription subscription = subscriptionMapper.toSubscription(
+                            new SubscriptionCreateRequestDto(item.serviceName(), item.startDate(), item.endDate()),
+                            userRepository.getReferenceById(item.userId()));
+                    subscription.setId(UUID.randomUUID());
+                    toInsert.add(subscription);
+                    insertedIndexes.add(index);
+                    results[index] = new SubscriptionBatchItemResultDto(index, item.userId(), item.serviceName(),
+                            SubscriptionBatchItemResultDto.Status.CREATED, subscription.getId(), null);
+                }
+            }
+            int inserted = 0;
+            if (!toInsert.isEmpty()) {
+                subscriptionJdbcRepository.insertAllIgnoringConflicts(toInsert);
+                // Строки, уступившие конкурентной вставке, молча пропускаются ON CONFLICT, поэтому сверяем по id
+                Set<UUID> insertedIds = new HashSet<>(subscriptionRepository.findExistingIds(
+                        toInsert.stream().map(Subscription::getId).collect(Collectors.toList()),
+                        toInsert.stream().map(subscription -> subscription.getUser().getId())
+                                .collect(Collectors.toSet())));
+                for (int i = 0; i < toInsert.size(); i++) {
+                    Subscription subscription = toInsert.get(i);
+                    if (insertedIds.contains(subscription.getId())) {
+                        popularityCounter.recordAdded(subscription.getServiceName());
+                        inserted++;
+                    } else {
+                        int index = insertedIndexes.get(i);
+                        results[index] = failedItem(index, items.get(index),
+                                SubscriptionBatchItemResultDto.Status.ALREADY_SUBSCRIBED,
+                                "User is already subscribed to " + subscription.getServiceName().getDisplayName());
+                    }
+                }
+                userSubscriptionsCache.evict(toInsert.stream()
+                        .map(subscription -> subscription.getUser().getId())
+                        .collect(Collectors.toSet()));
+            }
+            log.info("Processed chunk of {} batch subscriptions, {} inserted", chunk.size(), inserted);
+        });
+    }
+
+    private SubscriptionBatchItemResultDto failedItem(int index, SubscriptionBatchItemDto item,
+                                                      SubscriptionBatchItemResultDto.Status status, String message) {
+        return new SubscriptionBatchItemResultDto(index,
+                item != null ? item.userId() : null,
+                item != null ? item.serviceName() : null,
+                status, null, message);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public List<SubscriptionResponseDto> getUserSubscriptions(UUID userId) {
         log.info("Fetching subscriptions for user ID: {}", userId);
-        if (!userRepository.existsById(userId)) {
+        List<SubscriptionResponseDto> subscriptions = subscriptionRepository.findResponseDtosByUserId(userId);
+        // Существование пользователя проверяется только для пустого результата: непустой список его уже доказывает
+        if (subscriptions.isEmpty() && !userRepository.existsById(userId)) {
             log.warn("User not found for fetching subscriptions, ID: {}", userId);
             throw new ResourceNotFoundException("User not found with ID: " + userId);
         }
-        List<Subscription> subscriptions = subscriptionRepository.findByUserId(userId);
-        return subscriptions.stream()
-                .map(subscriptionMapper::toSubscriptionResponseDto)
-                .collect(Collectors.toList());
+        return subscriptions;
     }
 
     @Override
@@ -78,28 +230,65 @@ public class SubscriptionServiceImpl implements SubscriptionService {
             log.warn("User not found for removing subscription, ID: {}", userId);
             throw new ResourceNotFoundException("User not found with ID: " + userId);
         }
-        Subscription subscription = subscriptionRepository.findByIdAndUserId(subscriptionId, userId)
+        // Один DELETE ... RETURNING мимо контекста персистентности: массовый JPQL DELETE очистил бы
+        // регионы кэша второго уровня целиком, а кэш коллекции ниже сбрасывается только для этого пользователя
+        ServiceName serviceName = subscriptionJdbcRepository.deleteByIdAndUserId(subscriptionId, userId)
                 .orElseThrow(() -> {
                     log.warn("Subscription not found with ID: {} for user ID: {} or does not belong to the user", subscriptionId, userId);
                     return new ResourceNotFoundException(
                             "Subscription not found with ID: " + subscriptionId + " for user: " + userId);
                 });
-        subscriptionRepository.delete(subscription);
+        popularityCounter.recordRemoved(serviceName);
+        userSubscriptionsCache.evict(userId);
         log.info("Subscription ID: {} removed successfully from user ID: {}", subscriptionId, userId);
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<TopSubscriptionDto> getTop3PopularSubscriptions() {
-        log.info("Fetching top 3 popular subscriptions");
-        List<Object[]> rawData = subscriptionRepository.findTop3RawData();
-        return rawData.stream()
-                .map(row -> {
-                    ServiceName serviceName = (ServiceName) row[0];
-                    Number countNumber = (Number) row[1];
-                    long count = (countNumber != null) ? countNumber.longValue() : 0L;
-                    return subscriptionMapper.toTopSubscriptionDto(serviceName, count);
-                })
+    public CursorPageDto<SubscriptionResponseDto> searchSubscriptions(ServiceName serviceName, LocalDate activeOn,
+                                                                      LocalDate startedAfter, LocalDate endsBefore,
+                                                                      String cursor, int size) {
+        if (serviceName == null) {
+            throw new InvalidRequestParameterException("Parameter serviceName is required");
+        }
+        if (size < 1 || size > MAX_SEARCH_PAGE_SIZE) {
+            throw new InvalidRequestParameterException(
+                    "Page size must be between 1 and " + MAX_SEARCH_PAGE_SIZE + ", got: " + size);
+        }
+        SubscriptionKeysetCursor position = (cursor == null || cursor.isBlank())
+                ? null
+                : SubscriptionKeysetCursor.decode(cursor);
+        log.info("Searching {} subscriptions, active on: {}, started after: {}, ends before: {}, size: {}",
+                serviceName, activeOn, startedAfter, endsBefore, size);
+
+        List<SubscriptionResponseDto> rows = subscriptionJdbcRepository.search(SubscriptionSearchQuery.of(
+                serviceName, activeOn, startedAfter, endsBefore, position, size + 1));
+        boolean hasNext = rows.size() > size;
+        List<SubscriptionResponseDto> content = hasNext ? rows.subList(0, size) : rows;
+
+        String nextCursor = null;
+        if (hasNext) {
+            SubscriptionResponseDto last = content.get(content.size() - 1);
+            nextCursor = new SubscriptionKeysetCursor(last.startDate(), last.id()).encode();
+        }
+        return new CursorPageDto<>(content, size, nextCursor);
+    }
+
+    @Override
+    public List<TopSubscriptionDto> getTopPopularSubscriptions(Integer limit) {
+        int effectiveLimit = Math.min(limit != null ? Math.max(limit, 1) : defaultTopLimit, ServiceName.values().length);
+        log.info("Fetching top {} popular subscriptions", effectiveLimit);
+        long[] counts = popularityCounter.snapshot();
+        return Arrays.stream(ServiceName.values())
+                .filter(serviceName -> counts[serviceName.ordinal()] > 0)
+                .sorted(Comparator.comparingLong((ServiceName serviceName) -> counts[serviceName.ordinal()])
+                        .reversed()
+                        .thenComparing(ServiceName::name))
+                .limit(effectiveLimit)
+                .map(serviceName -> subscriptionMapper.toTopSubscriptionDto(serviceName, counts[serviceName.ordinal()]))
                 .collect(Collectors.toList());
     }
+
+    private record UserServiceKey(UUID userId, ServiceName serviceName) {
+    }
 }
@@ -0,0 +1,159 @@
+package max.iv.usersubscriptionservice.service.impliment;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import max.iv.usersubscriptionservice.availability.UserAvailabilityFilter;
+import max.iv.usersubscriptionservice.dto.UserBulkImportErrorDto;
+import max.iv.usersubscriptionservice.dto.UserBulkImportResultDto;
+import max.iv.usersubscriptionservice.dto.UserCreateRequestDto;
+import max.iv.usersubscriptionservice.mapper.UserMapper;
+import max.iv.usersubscriptionservice.models.User;
+import max.iv.usersubscriptionservice.repository.UserJdbcRepository;
+import max.iv.usersubscriptionservice.repository.UserRepository;
+import max.iv.usersubscriptionservice.service.UserBulkImportService;
+import max.iv.usersubscriptionservice.validation.UserCreateRequestValidator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class UserBulkImportServiceImpl implements UserBulkImportService {
+
+    private final UserRepository userRepository;
+
+    private final UserJdbcRepository userJdbcRepository;
+
+    private final UserMapper userMapper;
+
+    private final UserCreateRequestValidator userCreateRequestValidator;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final UserAvailabilityFilter userAvailabilityFilter;
+
+    @Value("${users.bulk.chunk-size:1000}")
+    private int chunkSize;
+
+    @Override
+    public UserBulkImportResultDto importUsers(Iterator<UserCreateRequestDto> users) {
+        log.info("Starting bulk user import, chunk size: {}", chunkSize);
+        List<UserBulkImportErrorDto> errors = new ArrayList<>();
+        Set<String> seenUsernames = new HashSet<>();
+        Set<String> seenEmails = new HashSet<>();
+        List<PendingUser> chunk = new ArrayList<>(chunkSize);
+        int received = 0;
+        int created = 0;
+
+        while (true) {
+            UserCreateRequestDto dto;
+            try {
+                if (!users.hasNext()) {
+                    break;
+                }
+                dto = users.next();
+            } catch (RuntimeException e) {
+                log.warn("Malformed item at index {} in bulk user import: {}", received, e.getMessage());
+                errors.add(new UserBulkImportErrorDto(received, null, "Malformed item, import stopped: " + e.getMessage()));
+                break;
+            }
+            int index = received++;
+
+            Map<String, String> validationErrors = userCreateRequestValidator.validate(dto);
+            if (!validationErrors.isEmpty()) {
+                errors.add(new UserBulkImportErrorDto(index, dto != null ? dto.username() : null,
+                        validationErrors.entrySet().stream()
+                                .map(error -> error.getKey() + ": " + error.getValue())
+                                .collect(Collectors.joining("; "))));
+                continue;
+            }
+            if (!seenUsernames.add(dto.username())) {
+                errors.add(new UserBulkImportErrorDto(index, dto.username(),
+                        "Username " + dto.username() + " is duplicated within the request."));
+                continue;
+            }
+            if (!seenEmails.add(dto.email())) {
+                errors.add(new UserBulkImportErrorDto(index, dto.username(),
+                        "Email " + dto.email() + " is duplicated within the request."));
+                continue;
+            }
+
+            chunk.add(new PendingUser(index, dto));
+            if (chunk.size() == chunkSize) {
+                created += importChunk(chunk, errors);
+                chunk.clear();
+            }
+        }
+        created += importChunk(chunk, errors);
+
+        errors.sort(Comparator.comparingInt(UserBulkImportErrorDto::index));
+        log.info("Bulk user import finished: received {}, created {}, failed {}", received, created, errors.size());
+        return new UserBulkImportResultDto(received, created, errors.size(), errors);
+    }
+
+    private int importChunk(List<PendingUser> chunk, List<UserBulkImportErrorDto> errors) {
+        if (chunk.isEmpty()) {
+            return 0;
+        }
+        Integer created = transactionTemplate.execute(status -> {
+            Set<String> existingUsernames = new HashSet<>(userRepository.findExistingUsernames(
+                    chunk.stream().map(pending -> pending.dto().username()).collect(Collectors.toList())));
+            Set<String> existingEmails = new HashSet<>(userRepository.findExistingEmails(
+                    chunk.stream().map(pending -> pending.dto().email()).collect(Collectors.toList())));
+
+            List<User> toInsert = new ArrayList<>(chunk.size());
+            List<PendingUser> inserted = new ArrayList<>(chunk.size());
+            for (PendingUser pending : chunk) {
+                UserCreateRequestDto dto = pending.dto();
+                if (existingUsernames.contains(dto.username())) {
+                    errors.add(new UserBulkImportErrorDto(pending.index(), dto.username(),
+                            "User with username " + dto.username() + " already exists."));
+                } else if (existingEmails.contains(dto.email())) {
+                    errors.add(new UserBulkImportErrorDto(pending.index(), dto.username(),
+                            "User with email " + dto.email() + " already exists."));
+                } else {
+                    User user = userMapper.toUser(dto);
+                    user.setId(UUID.randomUUID());
+                    toInsert.add(user);
+                    inserted.add(pending);
+                }
+            }
+            if (toInsert.isEmpty()) {
+                return 0;
+            }
+
+            userJdbcRepository.insertIgnoringConflicts(toInsert);
+            // Строки, уступившие конкурентной вставке, молча пропускаются ON CONFLICT, поэтому сверяем по id
+            Set<UUID> insertedIds = new HashSet<>(userRepository.findExistingIds(
+                    toInsert.stream().map(User::getId).collect(Collectors.toList())));
+            List<User> createdUsers = new ArrayList<>(insertedIds.size());
+            for (int i = 0; i < toInsert.size(); i++) {
+                if (insertedIds.contains(toInsert.get(i).getId())) {
+                    createdUsers.add(toInsert.get(i));
+                } else {
+                    UserCreateRequestDto dto = inserted.get(i).dto();
+                    errors.add(new UserBulkImportErrorDto(inserted.get(i).index(), dto.username(),
+                            "User with username " + dto.username() + " or email " + dto.email() + " already exists."));
+                }
+            }
+            userAvailabilityFilter.recordAdded(createdUsers);
+            return insertedIds.size();
+        });
+        log.info("Imported chunk of {} users, {} created", chunk.size(), created);
+        return created != null ? created : 0;
+    }
+
+    private record PendingUser(int index, UserCreateRequestDto dto) {
+    }
+}
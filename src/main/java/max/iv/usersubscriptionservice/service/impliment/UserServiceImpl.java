@@ -1,50 +1,101 @@
 package max.iv.usersubscriptionservice.service.impliment;
 
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import max.iv.usersubscriptionservice.availability.UserAvailabilityFilter;
+import max.iv.usersubscriptionservice.cache.UserSubscriptionsCache;
+import max.iv.usersubscriptionservice.dto.CursorPageDto;
+import max.iv.usersubscriptionservice.dto.SliceDto;
+import max.iv.usersubscriptionservice.dto.UserAvailabilityDto;
 import max.iv.usersubscriptionservice.dto.UserCreateRequestDto;
 import max.iv.usersubscriptionservice.dto.UserResponseDto;
 import max.iv.usersubscriptionservice.dto.UserUpdateRequestDto;
+import max.iv.usersubscriptionservice.dto.UserVersionDto;
 import max.iv.usersubscriptionservice.dto.UserWithSubscriptionNamesDto;
 import max.iv.usersubscriptionservice.exception.DuplicateResourceException;
+import max.iv.usersubscriptionservice.exception.InvalidRequestParameterException;
 import max.iv.usersubscriptionservice.exception.ResourceNotFoundException;
 import max.iv.usersubscriptionservice.mapper.UserMapper;
 import max.iv.usersubscriptionservice.models.User;
+import max.iv.usersubscriptionservice.pagination.UserKeysetCursor;
+import max.iv.usersubscriptionservice.pagination.UserSortKey;
+import max.iv.usersubscriptionservice.repository.SubscriptionRepository;
+import max.iv.usersubscriptionservice.repository.UserJdbcRepository;
 import max.iv.usersubscriptionservice.repository.UserRepository;
 import max.iv.usersubscriptionservice.service.UserService;
+import max.iv.usersubscriptionservice.statistics.SubscriptionPopularityCounter;
+import max.iv.usersubscriptionservice.util.DataIntegrityViolations;
+import org.hibernate.Hibernate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class UserServiceImpl implements UserService {
 
+    private static final int MAX_CURSOR_PAGE_SIZE = 100;
+
+    // Имена UNIQUE-ограничений из V001_create-users-table.sql (именование PostgreSQL по умолчанию)
+    private static final String USERNAME_CONSTRAINT = "users_username_key";
+
+    private static final String EMAIL_CONSTRAINT = "users_email_key";
+
     private final UserRepository userRepository;
 
+    private final SubscriptionRepository subscriptionRepository;
+
     private final UserMapper userMapper;
 
+    private final SubscriptionPopularityCounter popularityCounter;
+
+    private final EntityManager entityManager;
+
+    private final UserSubscriptionsCache userSubscriptionsCache;
+
+    private final UserAvailabilityFilter userAvailabilityFilter;
+
+    private final UserJdbcRepository userJdbcRepository;
+
+    @Value("${users.page.single-query:true}")
+    private boolean singleQueryPage;
+
+    @Value("${users.export.chunk-size:500}")
+    private int exportChunkSize;
+
     @Override
     @Transactional
     public UserResponseDto createUser(UserCreateRequestDto userCreateDto) {
         log.info("Creating user with username: {}", userCreateDto.username());
-        if (userRepository.existsByUsername(userCreateDto.username())) {
-            throw new DuplicateResourceException("User with username " + userCreateDto.username() + " already exists.");
-        }
-        if (userRepository.existsByEmail(userCreateDto.email())) {
-            throw new DuplicateResourceException("User with email " + userCreateDto.email() + " already exists.");
-        }
-
+        // Уникальность username/email проверяет БД: одна вставка вместо двух проверок и гонки между ними
         User user = userMapper.toUser(userCreateDto);
-        User savedUser = userRepository.save(user);
+        User savedUser;
+        try {
+            savedUser = userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
+            throw translateUniqueViolation(e,
+                    "User with username " + userCreateDto.username() + " already exists.",
+                    "User with email " + userCreateDto.email() + " already exists.");
+        }
+        userAvailabilityFilter.recordAdded(savedUser.getUsername(), savedUser.getEmail());
         log.info("User created successfully with ID: {}", savedUser.getId());
         return userMapper.toUserResponseDto(savedUser);
     }
@@ -53,12 +104,22 @@ public class UserServiceImpl implements UserService {
     @Transactional(readOnly = true)
     public UserResponseDto getUserById(UUID userId) {
         log.info("Fetching user by ID: {}", userId);
-        User user = userRepository.findById(userId)
+        // С кэшем второго уровня сущность берётся из кэша; без него DTO читается проекцией, минуя контекст персистентности
+        Optional<UserResponseDto> foundUser = userSubscriptionsCache.isEnabled()
+                ? userRepository.findById(userId).map(userMapper::toUserResponseDto)
+                : userRepository.findResponseDtoById(userId);
+        return foundUser
                 .orElseThrow(() -> {
                     log.warn("User not found with ID: {}", userId);
                     return new ResourceNotFoundException("User not found with ID: " + userId);
                 });
-        return userMapper.toUserResponseDto(user);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<UserVersionDto> getUserVersion(UUID userId) {
+        // Версия читается одним запросом без загрузки пользователя и подписок; пусто, если пользователя нет
+        return userJdbcRepository.findVersion(userId);
     }
 
     @Override
@@ -70,23 +131,43 @@ public class UserServiceImpl implements UserService {
                     log.warn("User not found for update with ID: {}", userId);
                     return new ResourceNotFoundException("User not found with ID: " + userId);
                 });
-        if (userUpdateDto.username() != null && !userUpdateDto.username().isBlank() &&
-                !existingUser.getUsername().equals(userUpdateDto.username()) &&
-                userRepository.existsByUsername(userUpdateDto.username())) {
-            throw new DuplicateResourceException("Username " + userUpdateDto.username() + " is already taken.");
+        String previousUsername = existingUser.getUsername();
+        String previousEmail = existingUser.getEmail();
+        userMapper.updateUserFromDto(userUpdateDto, existingUser);
+        User updatedUser;
+        try {
+            updatedUser = userRepository.saveAndFlush(existingUser);
+        } catch (DataIntegrityViolationException e) {
+            throw translateUniqueViolation(e,
+                    "Username " + userUpdateDto.username() + " is already taken.",
+                    "Email " + userUpdateDto.email() + " is already taken.");
         }
-        if (userUpdateDto.email() != null && !userUpdateDto.email().isBlank() &&
-                !existingUser.getEmail().equals(userUpdateDto.email()) &&
-                userRepository.existsByEmail(userUpdateDto.email())) {
-            throw new DuplicateResourceException("Email " + userUpdateDto.email() + " is already taken.");
+        boolean usernameChanged = !previousUsername.equals(updatedUser.getUsername());
+        boolean emailChanged = !previousEmail.equals(updatedUser.getEmail());
+        if (usernameChanged || emailChanged) {
+            userAvailabilityFilter.recordAdded(usernameChanged ? updatedUser.getUsername() : null,
+                    emailChanged ? updatedUser.getEmail() : null);
+            // Прежние значения остаются в фильтре до перестроения
+            userAvailabilityFilter.recordRemoved();
         }
-
-        userMapper.updateUserFromDto(userUpdateDto, existingUser);
-        User updatedUser = userRepository.save(existingUser);
         log.info("User updated successfully with ID: {}", updatedUser.getId());
         return userMapper.toUserResponseDto(updatedUser);
     }
 
+    private RuntimeException translateUniqueViolation(DataIntegrityViolationException exception,
+                                                      String usernameMessage, String emailMessage) {
+        String constraintName = DataIntegrityViolations.constraintName(exception).orElse("");
+        if (USERNAME_CONSTRAINT.equalsIgnoreCase(constraintName)) {
+            log.warn(usernameMessage);
+            return new DuplicateResourceException(usernameMessage);
+        }
+        if (EMAIL_CONSTRAINT.equalsIgnoreCase(constraintName)) {
+            log.warn(emailMessage);
+            return new DuplicateResourceException(emailMessage);
+        }
+        return exception;
+    }
+
     @Override
     @Transactional
     public void deleteUser(UUID userId) {
@@ -95,15 +176,45 @@ public class UserServiceImpl implements UserService {
             log.warn("User not found for deletion with ID: {}", userId);
             throw new ResourceNotFoundException("User not found with ID: " + userId);
         }
+        popularityCounter.recordRemoved(subscriptionRepository.findServiceNamesByUserId(userId));
+        // Одним запросом по секции пользователя, а не каскадом JPA по id каждой подписки
+        subscriptionRepository.deleteAllByUserId(userId);
         userRepository.deleteById(userId);
+        userAvailabilityFilter.recordRemoved();
         log.info("User deleted successfully with ID: {}", userId);
     }
 
+    @Override
+    public UserAvailabilityDto checkAvailability(String username, String email) {
+        boolean checkUsername = username != null && !username.isBlank();
+        boolean checkEmail = email != null && !email.isBlank();
+        if (!checkUsername && !checkEmail) {
+            throw new InvalidRequestParameterException("At least one of username or email must be provided");
+        }
+        // В БД идут только возможные совпадения: отрицательный ответ Bloom-фильтра точный
+        Boolean usernameAvailable = checkUsername
+                ? !(userAvailabilityFilter.mightContainUsername(username) && userRepository.existsByUsername(username))
+                : null;
+        Boolean emailAvailable = checkEmail
+                ? !(userAvailabilityFilter.mightContainEmail(email) && userRepository.existsByEmail(email))
+                : null;
+        log.info("Availability check: username {} -> {}, email {} -> {}", username, usernameAvailable, email, emailAvailable);
+        return new UserAvailabilityDto(checkUsername ? username : null, usernameAvailable,
+                checkEmail ? email : null, emailAvailable);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public UserWithSubscriptionNamesDto getUserByIdWithSubscriptions(UUID userId) {
         log.info("Fetching user by ID with subscriptions: {}", userId);
-        User user = userRepository.findByIdWithSubscriptions(userId)
+        // С кэшем второго уровня пользователь и его коллекция подписок читаются из кэша, без fetch join в БД
+        Optional<User> foundUser = userSubscriptionsCache.isEnabled()
+                ? userRepository.findById(userId).map(cachedUser -> {
+                    Hibernate.initialize(cachedUser.getSubscriptions());
+                    return cachedUser;
+                })
+                : userRepository.findByIdWithSubscriptions(userId);
+        User user = foundUser
                 .orElseThrow(() -> {
                     log.warn("User not found with ID: {}", userId);
                     return new ResourceNotFoundException("User not found with ID: " + userId);
@@ -116,18 +227,138 @@ public class UserServiceImpl implements UserService {
     public  Page<UserWithSubscriptionNamesDto> getAllUsersWithSubscriptions(Pageable pageable) {
         log.info("Fetching all users with their subscriptions, page: {}, size: {}",
                 pageable.getPageNumber(), pageable.getPageSize());
+        if (singleQueryPage) {
+            return userJdbcRepository.findPageWithSubscriptionNames(pageable);
+        }
         Page<UUID> userIdPage = userRepository.findUserIds(pageable);
         List<UUID> userIdsOnPage = userIdPage.getContent();
 
         if (userIdsOnPage.isEmpty()) {
             return Page.empty(pageable);
         }
-        List<User> usersWithSubscriptions = userRepository.findUsersWithSubscriptionsByIds(userIdsOnPage);
-
-        List<UserWithSubscriptionNamesDto> dtoList = usersWithSubscriptions.stream()
-                .map(userMapper::toUserWithSubscriptionNamesDto)
-                .collect(Collectors.toList());
+        List<UserWithSubscriptionNamesDto> dtoList = userRepository.findUsersWithSubscriptionNamesByIds(userIdsOnPage);
 
         return new PageImpl<>(dtoList, pageable, userIdPage.getTotalElements());
     }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<UserWithSubscriptionNamesDto> getAllUsersWithEstimatedCount(Pageable pageable) {
+        log.info("Fetching all users with their subscriptions and estimated total, page: {}, size: {}",
+                pageable.getPageNumber(), pageable.getPageSize());
+        SliceDto<UserWithSubscriptionNamesDto> slice = sliceUsersWithSubscriptions(pageable);
+        long seen = pageable.getOffset() + slice.content().size();
+        // Оценка из статистики может отставать от таблицы, поэтому сводится с тем, что видно по самой странице
+        long estimate = userJdbcRepository.estimateCount().orElseGet(userRepository::count);
+        long total;
+        if (slice.hasNext()) {
+            total = Math.max(estimate, seen + 1);
+        } else if (slice.content().isEmpty()) {
+            total = Math.min(estimate, pageable.getOffset());
+        } else {
+            total = seen;
+        }
+        return new PageImpl<>(slice.content(), pageable, total);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public SliceDto<UserWithSubscriptionNamesDto> getUsersWithSubscriptionsSlice(Pageable pageable) {
+        log.info("Fetching users with their subscriptions without total, page: {}, size: {}",
+                pageable.getPageNumber(), pageable.getPageSize());
+        return sliceUsersWithSubscriptions(pageable);
+    }
+
+    private SliceDto<UserWithSubscriptionNamesDto> sliceUsersWithSubscriptions(Pageable pageable) {
+        int size = pageable.getPageSize();
+        List<UserWithSubscriptionNamesDto> content;
+        boolean hasNext;
+        if (singleQueryPage) {
+            // Лишняя строка сверх страницы отвечает на вопрос о следующей странице без count(*)
+            List<UserWithSubscriptionNamesDto> rows = userJdbcRepository.findWithSubscriptionNames(pageable, size + 1);
+            hasNext = rows.size() > size;
+            content = hasNext ? rows.subList(0, size) : rows;
+        } else {
+            Slice<UUID> userIdSlice = userRepository.findUserIdSlice(pageable);
+            hasNext = userIdSlice.hasNext();
+            content = userIdSlice.hasContent()
+                    ? userRepository.findUsersWithSubscriptionNamesByIds(userIdSlice.getContent())
+                    : List.of();
+        }
+        return new SliceDto<>(content, pageable.getPageNumber(), size, hasNext);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageDto<UserWithSubscriptionNamesDto> getUsersWithSubscriptionsByCursor(String cursor, Sort sort, int size) {
+        if (size < 1 || size > MAX_CURSOR_PAGE_SIZE) {
+            throw new InvalidRequestParameterException(
+                    "Page size must be between 1 and " + MAX_CURSOR_PAGE_SIZE + ", got: " + size);
+        }
+        UserKeysetCursor position = (cursor == null || cursor.isBlank())
+                ? firstCursor(sort)
+                : UserKeysetCursor.decode(cursor);
+        log.info("Fetching users with their subscriptions by cursor, sort: {} {}, size: {}",
+                position.sortKey(), position.direction(), size);
+
+        List<UUID> userIds = userRepository.findUserIdsAfter(position, size + 1);
+        boolean hasNext = userIds.size() > size;
+        List<UUID> userIdsOnPage = hasNext ? userIds.subList(0, size) : userIds;
+        if (userIdsOnPage.isEmpty()) {
+            return new CursorPageDto<>(List.of(), size, null);
+        }
+
+        List<UserWithSubscriptionNamesDto> dtoList = userRepository.findUsersWithSubscriptionNamesByIds(userIdsOnPage);
+
+        String nextCursor = null;
+        if (hasNext && !dtoList.isEmpty()) {
+            UserWithSubscriptionNamesDto last = dtoList.get(dtoList.size() - 1);
+            nextCursor = position.next(position.sortKey().valueOf(last), last.id()).encode();
+        }
+        return new CursorPageDto<>(dtoList, size, nextCursor);
+    }
+
+    private UserKeysetCursor firstCursor(Sort sort) {
+        Sort.Order order = sort.stream()
+                .findFirst()
+                .orElse(Sort.Order.asc(UserSortKey.USERNAME.getProperty()));
+        UserSortKey sortKey = UserSortKey.fromProperty(order.getProperty())
+                .orElseThrow(() -> new InvalidRequestParameterException(
+                        "Unsupported sort property for cursor pagination: " + order.getProperty()));
+        return UserKeysetCursor.first(sortKey, order.getDirection());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long exportUsersWithSubscriptions(Consumer<UserWithSubscriptionNamesDto> consumer) {
+        log.info("Exporting all users with their subscriptions, chunk size: {}", exportChunkSize);
+        long exported = 0;
+        List<User> chunk = new ArrayList<>(exportChunkSize);
+        try (Stream<User> users = userRepository.streamAllOrderedById()) {
+            Iterator<User> iterator = users.iterator();
+            while (iterator.hasNext()) {
+                chunk.add(iterator.next());
+                if (chunk.size() == exportChunkSize) {
+                    exported += exportChunk(chunk, consumer);
+                }
+            }
+            exported += exportChunk(chunk, consumer);
+        }
+        log.info("Exported {} users with their subscriptions", exported);
+        return exported;
+    }
+
+    private int exportChunk(List<User> chunk, Consumer<UserWithSubscriptionNamesDto> consumer) {
+        if (chunk.isEmpty()) {
+            return 0;
+        }
+        // Пользователи уже в контексте, поэтому запрос только инициализирует их коллекции подписок
+        userRepository.findUsersWithSubscriptionsByIds(chunk.stream().map(User::getId).collect(Collectors.toList()));
+        chunk.forEach(user -> consumer.accept(userMapper.toUserWithSubscriptionNamesDto(user)));
+        int exported = chunk.size();
+        chunk.clear();
+        // Отпускаем уже выгруженные сущности, чтобы память не росла вместе с таблицей
+        entityManager.clear();
+        return exported;
+    }
 }
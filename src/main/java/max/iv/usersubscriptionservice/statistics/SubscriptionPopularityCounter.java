@@ -0,0 +1,95 @@
+package max.iv.usersubscriptionservice.statistics;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import max.iv.usersubscriptionservice.models.enums.ServiceName;
+import max.iv.usersubscriptionservice.repository.SubscriptionRepository;
+import max.iv.usersubscriptionservice.util.TransactionCallbacks;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * In-memory subscription counts per {@link ServiceName}, one lock-free slot per enum constant.
+ * Changes are applied after the surrounding transaction commits, so rolled back writes never
+ * show up here. The counts are periodically reconciled against the database to correct drift
+ * from writes that bypass the service layer.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SubscriptionPopularityCounter {
+
+    private static final ServiceName[] SERVICE_NAMES = ServiceName.values();
+
+    private final AtomicLongArray counts = new AtomicLongArray(SERVICE_NAMES.length);
+
+    private final SubscriptionRepository subscriptionRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    public void recordAdded(ServiceName serviceName) {
+        TransactionCallbacks.afterCommit(() -> counts.incrementAndGet(serviceName.ordinal()));
+    }
+
+    public void recordRemoved(ServiceName serviceName) {
+        TransactionCallbacks.afterCommit(() -> decrement(serviceName));
+    }
+
+    public void recordRemoved(Collection<ServiceName> serviceNames) {
+        if (serviceNames.isEmpty()) {
+            return;
+        }
+        List<ServiceName> removed = List.copyOf(serviceNames);
+        TransactionCallbacks.afterCommit(() -> removed.forEach(this::decrement));
+    }
+
+    public long[] snapshot() {
+        long[] snapshot = new long[SERVICE_NAMES.length];
+        for (int i = 0; i < snapshot.length; i++) {
+            snapshot[i] = counts.get(i);
+        }
+        return snapshot;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${subscriptions.top.reconcile-interval:PT5M}",
+            initialDelayString = "${subscriptions.top.reconcile-interval:PT5M}")
+    public void reconcile() {
+        // Без явной транзакции запрос унаследовал бы readOnly от SimpleJpaRepository и ушел бы на реплику,
+        // а ее отставание затерло бы точные счетчики
+        long[] actual = decodeCounts(transactionTemplate.execute(
+                status -> subscriptionRepository.countSubscriptionsByServiceName()));
+        // Writes committing while the query runs may be counted twice or not at all until the next pass.
+        int corrected = 0;
+        for (int i = 0; i < actual.length; i++) {
+            if (counts.getAndSet(i, actual[i]) != actual[i]) {
+                corrected++;
+            }
+        }
+        log.info("Reconciled subscription popularity counters, {} service(s) corrected", corrected);
+    }
+
+    /**
+     * Decodes {@code (serviceName, count)} rows into counts indexed by {@link ServiceName#ordinal()}.
+     */
+    public static long[] decodeCounts(List<Object[]> rows) {
+        long[] counts = new long[SERVICE_NAMES.length];
+        for (Object[] row : rows) {
+            ServiceName serviceName = (ServiceName) row[0];
+            Number countNumber = (Number) row[1];
+            counts[serviceName.ordinal()] = (countNumber != null) ? countNumber.longValue() : 0L;
+        }
+        return counts;
+    }
+
+    private void decrement(ServiceName serviceName) {
+        counts.updateAndGet(serviceName.ordinal(), current -> Math.max(0L, current - 1));
+    }
+}
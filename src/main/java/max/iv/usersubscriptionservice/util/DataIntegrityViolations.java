@@ -0,0 +1,47 @@
+package max.iv.usersubscriptionservice.util;
+
+import org.postgresql.util.PSQLException;
+import org.postgresql.util.ServerErrorMessage;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.sql.SQLException;
+import java.util.Optional;
+
+/**
+ * Classifies {@link DataIntegrityViolationException}s by the SQLSTATE and constraint name of the underlying
+ * driver error, so write paths can rely on database constraints instead of probing before every write.
+ */
+public final class DataIntegrityViolations {
+
+    private static final String FOREIGN_KEY_VIOLATION = "23503";
+
+    private DataIntegrityViolations() {
+    }
+
+    public static boolean isForeignKeyViolation(DataIntegrityViolationException exception) {
+        return FOREIGN_KEY_VIOLATION.equals(sqlState(exception));
+    }
+
+    /**
+     * Name of the violated constraint from the structured PostgreSQL error report, whatever the language
+     * of the server messages ({@code lc_messages}).
+     */
+    public static Optional<String> constraintName(DataIntegrityViolationException exception) {
+        for (Throwable cause = exception; cause != null; cause = cause.getCause()) {
+            if (cause instanceof PSQLException psqlException) {
+                ServerErrorMessage serverError = psqlException.getServerErrorMessage();
+                return Optional.ofNullable(serverError != null ? serverError.getConstraint() : null);
+            }
+        }
+        return Optional.empty();
+    }
+
+    private static String sqlState(Throwable exception) {
+        for (Throwable cause = exception; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sqlException && sqlException.getSQLState() != null) {
+                return sqlException.getSQLState();
+            }
+        }
+        return null;
+    }
+}
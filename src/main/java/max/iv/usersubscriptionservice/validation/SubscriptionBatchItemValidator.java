@@ -0,0 +1,37 @@
+package max.iv.usersubscriptionservice.validation;
+
+import max.iv.usersubscriptionservice.dto.SubscriptionBatchItemDto;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Programmatic counterpart of the constraints declared on
+ * {@link max.iv.usersubscriptionservice.dto.SubscriptionCreateRequestDto}, plus the target user.
+ */
+@Component
+public class SubscriptionBatchItemValidator {
+
+    public Map<String, String> validate(SubscriptionBatchItemDto dto) {
+        Map<String, String> errors = new LinkedHashMap<>();
+        if (dto == null) {
+            errors.put("subscription", "Subscription cannot be null");
+            return errors;
+        }
+        if (dto.userId() == null) {
+            errors.put("userId", "User ID cannot be null");
+        }
+        if (dto.serviceName() == null) {
+            errors.put("serviceName", "Service name cannot be null");
+        }
+        if (dto.startDate() == null) {
+            errors.put("startDate", "Start date cannot be null");
+        }
+        if (dto.endDate() != null && dto.endDate().isBefore(LocalDate.now())) {
+            errors.put("endDate", "End date must be in the present or future");
+        }
+        return errors;
+    }
+}
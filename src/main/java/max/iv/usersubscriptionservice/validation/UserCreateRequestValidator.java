@@ -0,0 +1,56 @@
+package max.iv.usersubscriptionservice.validation;
+
+import max.iv.usersubscriptionservice.dto.UserCreateRequestDto;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Programmatic counterpart of the constraints declared on {@link UserCreateRequestDto}, for
+ * paths that validate many items one by one instead of through {@code @Valid}.
+ */
+@Component
+public class UserCreateRequestValidator {
+
+    private static final Pattern EMAIL_PATTERN = Pattern.compile("^[^@\\s]+@[^@\\s]+$");
+
+    public Map<String, String> validate(UserCreateRequestDto dto) {
+        Map<String, String> errors = new LinkedHashMap<>();
+        if (dto == null) {
+            errors.put("user", "User cannot be null");
+            return errors;
+        }
+        if (isBlank(dto.username())) {
+            errors.put("username", "Username cannot be blank");
+        } else if (dto.username().length() < 3 || dto.username().length() > 50) {
+            errors.put("username", "Username must be between 3 and 50 characters");
+        }
+        if (isBlank(dto.email())) {
+            errors.put("email", "Email cannot be blank");
+        } else if (!EMAIL_PATTERN.matcher(dto.email()).matches()) {
+            errors.put("email", "Email should be valid");
+        } else if (dto.email().length() > 100) {
+            errors.put("email", "size must be between 0 and 100");
+        }
+        if (isBlank(dto.password())) {
+            errors.put("password", "Password cannot be blank");
+        } else if (dto.password().length() < 6) {
+            errors.put("password", "Password must be at least 6 characters long");
+        } else if (dto.password().length() > 255) {
+            errors.put("password", "size must be between 6 and 255");
+        }
+        if (dto.firstName() != null && dto.firstName().length() > 50) {
+            errors.put("firstName", "size must be between 0 and 50");
+        }
+        if (dto.lastName() != null && dto.lastName().length() > 50) {
+            errors.put("lastName", "size must be between 0 and 50");
+        }
+        return errors;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+}
@@ -0,0 +1,3 @@
+CREATE INDEX idx_users_username_id ON users (username, id);
+CREATE INDEX idx_users_email_id ON users (email, id);
+CREATE INDEX idx_users_created_time_id ON users (created_time, id);
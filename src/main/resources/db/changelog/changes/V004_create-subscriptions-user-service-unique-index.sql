@@ -0,0 +1,11 @@
+-- Дубликаты, успевшие появиться до ограничения, схлопываются до самой ранней подписки
+DELETE FROM subscriptions s
+USING subscriptions d
+WHERE s.user_id = d.user_id
+  AND s.service_name = d.service_name
+  AND (s.created_time, s.id) > (d.created_time, d.id);
+
+CREATE UNIQUE INDEX uq_subscriptions_user_id_service_name ON subscriptions (user_id, service_name);
+
+-- Поиск по user_id обслуживает уникальный индекс (user_id — ведущая колонка)
+DROP INDEX idx_subscriptions_user_id;
@@ -0,0 +1,2 @@
+-- Движок истечения ищет только подписки с датой окончания; бессрочные в индекс не попадают
+CREATE INDEX idx_subscriptions_end_date ON subscriptions (end_date) WHERE end_date IS NOT NULL;
@@ -0,0 +1,6 @@
+-- Поиск подписок сервиса по диапазону дат: равенство по service_name, диапазон и порядок по start_date,
+-- условие по end_date проверяется прямо в индексе
+CREATE INDEX idx_subscriptions_service_start_end ON subscriptions (service_name, start_date, end_date);
+
+-- service_name — ведущая колонка нового индекса, отдельный индекс больше не нужен
+DROP INDEX idx_subscriptions_service_name;
@@ -0,0 +1,37 @@
+-- Журнал изменений для GET /changes: строка на каждую вставку, изменение и удаление пользователя или подписки.
+-- Пишется триггерами в той же транзакции, что и само изменение, включая каскадное удаление подписок
+-- и пакетные JDBC-операции. tx_id — 64-битный номер транзакции (pg_current_xact_id)
+CREATE TABLE change_log
+(
+    id           BIGSERIAL PRIMARY KEY,
+    tx_id        BIGINT      NOT NULL DEFAULT pg_current_xact_id()::text::bigint,
+    entity_type  VARCHAR(20) NOT NULL,
+    entity_id    UUID        NOT NULL,
+    operation    VARCHAR(10) NOT NULL,
+    changed_time TIMESTAMPTZ NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Лента читается диапазоном (tx_id, id) > токен
+CREATE INDEX idx_change_log_tx_id_id ON change_log (tx_id, id);
+
+CREATE FUNCTION record_change() RETURNS trigger
+    LANGUAGE plpgsql AS
+$$
+BEGIN
+    IF TG_OP = 'DELETE' THEN
+        INSERT INTO change_log (entity_type, entity_id, operation) VALUES (TG_ARGV[0], OLD.id, 'DELETED');
+        RETURN OLD;
+    END IF;
+    INSERT INTO change_log (entity_type, entity_id, operation)
+    VALUES (TG_ARGV[0], NEW.id, CASE TG_OP WHEN 'INSERT' THEN 'CREATED' ELSE 'UPDATED' END);
+    RETURN NEW;
+END;
+$$;
+
+CREATE TRIGGER trg_users_change_log
+    AFTER INSERT OR UPDATE OR DELETE ON users
+    FOR EACH ROW EXECUTE FUNCTION record_change('USER');
+
+CREATE TRIGGER trg_subscriptions_change_log
+    AFTER INSERT OR UPDATE OR DELETE ON subscriptions
+    FOR EACH ROW EXECUTE FUNCTION record_change('SUBSCRIPTION');
@@ -0,0 +1,80 @@
+-- Секционированная по хэшу user_id замена subscriptions. Ключ секционирования обязан входить в первичный
+-- и уникальные ключи, поэтому PK — (id, user_id). До переключения (V009) новая таблица заполняется
+-- триггером синхронизации со старой и фоновым переносом старых строк (SubscriptionPartitionBackfill)
+CREATE TABLE subscriptions_partitioned
+(
+    id           UUID        NOT NULL DEFAULT uuid_generate_v4(),
+    service_name VARCHAR(50) NOT NULL,
+    start_date   DATE        NOT NULL,
+    end_date     DATE,
+    user_id      UUID        NOT NULL,
+    created_time TIMESTAMPTZ NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_time TIMESTAMPTZ NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT subscriptions_partitioned_pkey PRIMARY KEY (id, user_id),
+    CONSTRAINT fk_subscriptions_partitioned_user
+        FOREIGN KEY (user_id)
+            REFERENCES users (id)
+            ON DELETE CASCADE
+) PARTITION BY HASH (user_id);
+
+-- 16 секций; индексы секций именуются явно (<индекс>_pNN) и подключаются к индексам родителя,
+-- которые получают постоянные имена при переключении
+DO
+$$
+    DECLARE
+        part TEXT;
+    BEGIN
+        FOR i IN 0..15
+            LOOP
+                part := 'subscriptions_p' || lpad(i::TEXT, 2, '0');
+                EXECUTE format('CREATE TABLE %I PARTITION OF subscriptions_partitioned '
+                                   'FOR VALUES WITH (MODULUS 16, REMAINDER %s)', part, i);
+                EXECUTE format('CREATE UNIQUE INDEX %I ON %I (user_id, service_name)',
+                               'uq_subscriptions_user_id_service_name_' || substr(part, 15), part);
+                EXECUTE format('CREATE INDEX %I ON %I (service_name, start_date, end_date)',
+                               'idx_subscriptions_service_start_end_' || substr(part, 15), part);
+                EXECUTE format('CREATE INDEX %I ON %I (end_date) WHERE end_date IS NOT NULL',
+                               'idx_subscriptions_end_date_' || substr(part, 15), part);
+            END LOOP;
+    END
+$$;
+
+CREATE UNIQUE INDEX uq_subscriptions_partitioned_user_id_service_name
+    ON subscriptions_partitioned (user_id, service_name);
+CREATE INDEX idx_subscriptions_partitioned_service_start_end
+    ON subscriptions_partitioned (service_name, start_date, end_date);
+CREATE INDEX idx_subscriptions_partitioned_end_date
+    ON subscriptions_partitioned (end_date) WHERE end_date IS NOT NULL;
+
+-- Каждое изменение старой таблицы повторяется в новой в той же транзакции
+CREATE FUNCTION sync_subscriptions_partitioned() RETURNS trigger
+    LANGUAGE plpgsql AS
+$$
+BEGIN
+    IF TG_OP IN ('UPDATE', 'DELETE') THEN
+        DELETE FROM subscriptions_partitioned WHERE id = OLD.id AND user_id = OLD.user_id;
+    END IF;
+    IF TG_OP IN ('INSERT', 'UPDATE') THEN
+        INSERT INTO subscriptions_partitioned (id, service_name, start_date, end_date, user_id,
+                                               created_time, updated_time)
+        VALUES (NEW.id, NEW.service_name, NEW.start_date, NEW.end_date, NEW.user_id,
+                NEW.created_time, NEW.updated_time);
+    END IF;
+    RETURN NULL;
+END;
+$$;
+
+CREATE TRIGGER trg_subscriptions_sync_partitioned
+    AFTER INSERT OR UPDATE OR DELETE ON subscriptions
+    FOR EACH ROW EXECUTE FUNCTION sync_subscriptions_partitioned();
+
+-- Позиция фонового переноса строк, существовавших до появления триггера
+CREATE TABLE subscriptions_partition_backfill
+(
+    id             INT PRIMARY KEY DEFAULT 1 CHECK (id = 1),
+    last_id        UUID,
+    copied_rows    BIGINT NOT NULL DEFAULT 0,
+    completed_time TIMESTAMPTZ
+);
+
+INSERT INTO subscriptions_partition_backfill (id) VALUES (1);
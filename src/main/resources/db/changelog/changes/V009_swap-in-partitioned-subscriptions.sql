@@ -0,0 +1,19 @@
+-- Переключение на секционированную таблицу. Предусловие changeset проверяет, что перенос завершен,
+-- а все последующие записи повторяет триггер, поэтому под блокировкой остается только переименование
+LOCK TABLE subscriptions, subscriptions_partitioned IN ACCESS EXCLUSIVE MODE;
+
+DROP TABLE subscriptions;
+DROP FUNCTION sync_subscriptions_partitioned();
+DROP TABLE subscriptions_partition_backfill;
+
+ALTER TABLE subscriptions_partitioned RENAME TO subscriptions;
+ALTER TABLE subscriptions RENAME CONSTRAINT subscriptions_partitioned_pkey TO subscriptions_pkey;
+ALTER TABLE subscriptions RENAME CONSTRAINT fk_subscriptions_partitioned_user TO fk_subscriptions_user;
+ALTER INDEX uq_subscriptions_partitioned_user_id_service_name RENAME TO uq_subscriptions_user_id_service_name;
+ALTER INDEX idx_subscriptions_partitioned_service_start_end RENAME TO idx_subscriptions_service_start_end;
+ALTER INDEX idx_subscriptions_partitioned_end_date RENAME TO idx_subscriptions_end_date;
+
+-- Журнал изменений (V007) ведется уже по новой таблице; триггер на родителе срабатывает для всех секций
+CREATE TRIGGER trg_subscriptions_change_log
+    AFTER INSERT OR UPDATE OR DELETE ON subscriptions
+    FOR EACH ROW EXECUTE FUNCTION record_change('SUBSCRIPTION');
@@ -0,0 +1,12 @@
+-- Граница очистки change_log: строки с (tx_id, id) <= (pruned_tx_id, pruned_id) удалены по сроку хранения.
+-- Токен GET /changes ниже границы устарел — клиент получает 410 и токен для повторной синхронизации
+CREATE TABLE change_log_retention
+(
+    id           INT PRIMARY KEY DEFAULT 1 CHECK (id = 1),
+    pruned_tx_id BIGINT NOT NULL DEFAULT 0,
+    pruned_id    BIGINT NOT NULL DEFAULT 0,
+    pruned_rows  BIGINT NOT NULL DEFAULT 0,
+    pruned_time  TIMESTAMPTZ
+);
+
+INSERT INTO change_log_retention (id) VALUES (1);
@@ -0,0 +1,136 @@
+package max.iv.usersubscriptionservice;
+
+import max.iv.usersubscriptionservice.dto.ChangeDto;
+import max.iv.usersubscriptionservice.dto.ChangeFeedDto;
+import max.iv.usersubscriptionservice.dto.SubscriptionCreateRequestDto;
+import max.iv.usersubscriptionservice.dto.SubscriptionResponseDto;
+import max.iv.usersubscriptionservice.dto.UserCreateRequestDto;
+import max.iv.usersubscriptionservice.dto.UserResponseDto;
+import max.iv.usersubscriptionservice.dto.UserUpdateRequestDto;
+import max.iv.usersubscriptionservice.models.enums.ChangeEntityType;
+import max.iv.usersubscriptionservice.models.enums.ChangeOperation;
+import max.iv.usersubscriptionservice.models.enums.ServiceName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@Testcontainers
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class ChangeFeedIntegrationTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Container
+    public static PostgreSQLContainer<?> postgresContainer = new PostgreSQLContainer<>("postgres:16-alpine")
+            .withDatabaseName("test-change-feed-db")
+            .withUsername("testfeeduser")
+            .withPassword("testfeedpass");
+
+    @DynamicPropertySource
+    static void postgresqlProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgresContainer::getJdbcUrl);
+        registry.add("spring.datasource.username", postgresContainer::getUsername);
+        registry.add("spring.datasource.password", postgresContainer::getPassword);
+        registry.add("spring.liquibase.enabled", () -> "true");
+        registry.add("spring.liquibase.change-log", () -> "classpath:db/changelog/db.changelog-master.yaml");
+        registry.add("subscriptions.expiry.enabled", () -> "false");
+    }
+
+    @Test
+    void shouldFeedCreatesUpdatesAndTombstonesInCommitSafeOrder() {
+        String baseUrl = "http://localhost:" + port;
+        String startToken = readAll(baseUrl, "").nextToken();
+
+        UserResponseDto user = restTemplate.postForObject(baseUrl + "/users",
+                new UserCreateRequestDto("feed.user", "feed@example.com", "password", "Feed", "User"),
+                UserResponseDto.class);
+        SubscriptionResponseDto first = restTemplate.postForObject(baseUrl + "/users/" + user.id() + "/subscriptions",
+                new SubscriptionCreateRequestDto(ServiceName.SPOTIFY_PREMIUM, LocalDate.now(), null),
+                SubscriptionResponseDto.class);
+        SubscriptionResponseDto second = restTemplate.postForObject(baseUrl + "/users/" + user.id() + "/subscriptions",
+                new SubscriptionCreateRequestDto(ServiceName.APPLE_MUSIC, LocalDate.now(), null),
+                SubscriptionResponseDto.class);
+        restTemplate.put(baseUrl + "/users/" + user.id(),
+                new UserUpdateRequestDto("feed.user", "feed@example.com", "password", "Changed", "User"));
+        restTemplate.delete(baseUrl + "/users/" + user.id() + "/subscriptions/" + first.id());
+
+        ChangeFeedDto delta = readAll(baseUrl, startToken);
+        List<ChangeDto> changes = delta.changes().stream()
+                .filter(change -> Set.of(user.id(), first.id(), second.id()).contains(change.entityId()))
+                .toList();
+        assertThat(changes)
+                .extracting(ChangeDto::entityType, ChangeDto::entityId, ChangeDto::operation)
+                .containsExactly(
+                        tuple(ChangeEntityType.USER, user.id(), ChangeOperation.CREATED),
+                        tuple(ChangeEntityType.SUBSCRIPTION, first.id(), ChangeOperation.CREATED),
+                        tuple(ChangeEntityType.SUBSCRIPTION, second.id(), ChangeOperation.CREATED),
+                        tuple(ChangeEntityType.USER, user.id(), ChangeOperation.UPDATED),
+                        tuple(ChangeEntityType.SUBSCRIPTION, first.id(), ChangeOperation.DELETED));
+        // Вставки несут текущее состояние; подписка, удалённая позже, приходит без данных, надгробие — тоже
+        assertThat(changes.get(0).user().firstName()).isEqualTo("Changed");
+        assertThat(changes.get(1).subscription()).isNull();
+        assertThat(changes.get(2).subscription().serviceName()).isEqualTo(ServiceName.APPLE_MUSIC);
+        assertThat(changes.get(4).subscription()).isNull();
+
+        // Удаление пользователя каскадно удаляет подписку; надгробия приходят для обоих
+        restTemplate.delete(baseUrl + "/users/" + user.id());
+        ChangeFeedDto tombstones = readAll(baseUrl, delta.nextToken());
+        assertThat(tombstones.changes())
+                .extracting(ChangeDto::entityId, ChangeDto::operation)
+                .containsExactlyInAnyOrder(
+                        tuple(user.id(), ChangeOperation.DELETED),
+                        tuple(second.id(), ChangeOperation.DELETED));
+
+        ChangeFeedDto empty = readAll(baseUrl, tombstones.nextToken());
+        assertThat(empty.changes()).isEmpty();
+        assertThat(empty.nextToken()).isEqualTo(tombstones.nextToken());
+    }
+
+    @Test
+    void shouldRejectInvalidTokenAndLimit() {
+        String baseUrl = "http://localhost:" + port + "/changes";
+        assertThat(restTemplate.getForEntity(baseUrl + "?since=not-a-token", String.class).getStatusCode())
+                .isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(restTemplate.getForEntity(baseUrl + "?limit=0", String.class).getStatusCode())
+                .isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    // Читает ленту страницами по 2, пока hasMore, и склеивает результат
+    private ChangeFeedDto readAll(String baseUrl, String since) {
+        List<ChangeDto> changes = new ArrayList<>();
+        String token = since;
+        ChangeFeedDto page;
+        do {
+            ResponseEntity<ChangeFeedDto> response = restTemplate.getForEntity(
+                    baseUrl + "/changes?limit=2&since=" + token, ChangeFeedDto.class);
+            assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+            page = response.getBody();
+            assertThat(page).isNotNull();
+            changes.addAll(page.changes());
+            token = page.nextToken();
+        } while (page.hasMore());
+        return new ChangeFeedDto(changes, token, false);
+    }
+}
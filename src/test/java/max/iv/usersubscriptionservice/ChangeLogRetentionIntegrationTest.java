@@ -0,0 +1,110 @@
+package max.iv.usersubscriptionservice;
+
+import max.iv.usersubscriptionservice.changefeed.ChangeLogPruner;
+import max.iv.usersubscriptionservice.dto.ChangeDto;
+import max.iv.usersubscriptionservice.dto.ChangeFeedDto;
+import max.iv.usersubscriptionservice.dto.UserCreateRequestDto;
+import max.iv.usersubscriptionservice.dto.UserResponseDto;
+import max.iv.usersubscriptionservice.exception.ErrorDetailsResync;
+import max.iv.usersubscriptionservice.models.enums.ChangeOperation;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Очистка change_log по сроку хранения: токен до очищенной границы получает 410 с токеном
+ * для повторной синхронизации, и с этого токена лента продолжается без пропусков.
+ */
+@Testcontainers
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class ChangeLogRetentionIntegrationTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private ChangeLogPruner changeLogPruner;
+
+    @Container
+    public static PostgreSQLContainer<?> postgresContainer = new PostgreSQLContainer<>("postgres:16-alpine")
+            .withDatabaseName("test-retention-db")
+            .withUsername("testretentionuser")
+            .withPassword("testretentionpass");
+
+    @DynamicPropertySource
+    static void postgresqlProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgresContainer::getJdbcUrl);
+        registry.add("spring.datasource.username", postgresContainer::getUsername);
+        registry.add("spring.datasource.password", postgresContainer::getPassword);
+        registry.add("spring.liquibase.enabled", () -> "true");
+        registry.add("spring.liquibase.change-log", () -> "classpath:db/changelog/db.changelog-master.yaml");
+        registry.add("subscriptions.expiry.enabled", () -> "false");
+        registry.add("change-log.retention.batch-size", () -> "2");
+    }
+
+    @Test
+    void shouldAskForResyncAfterPruningPastToken() {
+        String changesUrl = "http://localhost:" + port + "/changes";
+        String usersUrl = "http://localhost:" + port + "/users";
+        restTemplate.postForObject(usersUrl,
+                new UserCreateRequestDto("retention.first", "retention.first@example.com", "password", "First", "User"),
+                UserResponseDto.class);
+        String token = readToEnd(changesUrl, "");
+        restTemplate.postForObject(usersUrl,
+                new UserCreateRequestDto("retention.second", "retention.second@example.com", "password", "Second", "User"),
+                UserResponseDto.class);
+
+        // Запас по времени на расхождение часов JVM и контейнера
+        assertThat(changeLogPruner.pruneBefore(Instant.now().plusSeconds(60))).isPositive();
+
+        ResponseEntity<ErrorDetailsResync> expired = restTemplate.getForEntity(
+                changesUrl + "?since=" + token, ErrorDetailsResync.class);
+        assertThat(expired.getStatusCode()).isEqualTo(HttpStatus.GONE);
+        assertThat(expired.getBody()).isNotNull();
+        assertThat(expired.getBody().resyncToken()).isNotBlank();
+        assertThat(restTemplate.getForEntity(changesUrl, ErrorDetailsResync.class).getStatusCode())
+                .isEqualTo(HttpStatus.GONE);
+
+        UserResponseDto third = restTemplate.postForObject(usersUrl,
+                new UserCreateRequestDto("retention.third", "retention.third@example.com", "password", "Third", "User"),
+                UserResponseDto.class);
+        ResponseEntity<ChangeFeedDto> resumed = restTemplate.getForEntity(
+                changesUrl + "?since=" + expired.getBody().resyncToken(), ChangeFeedDto.class);
+        assertThat(resumed.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(resumed.getBody()).isNotNull();
+        assertThat(resumed.getBody().changes())
+                .extracting(ChangeDto::entityId, ChangeDto::operation)
+                .containsExactly(tuple(third.id(), ChangeOperation.CREATED));
+    }
+
+    private String readToEnd(String changesUrl, String since) {
+        String token = since;
+        ChangeFeedDto page;
+        do {
+            ResponseEntity<ChangeFeedDto> response = restTemplate.getForEntity(
+                    changesUrl + "?limit=100&since=" + token, ChangeFeedDto.class);
+            assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+            page = response.getBody();
+            assertThat(page).isNotNull();
+            token = page.nextToken();
+        } while (page.hasMore());
+        return token;
+    }
+}
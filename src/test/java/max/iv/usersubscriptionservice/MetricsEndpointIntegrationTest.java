@@ -0,0 +1,76 @@
+package max.iv.usersubscriptionservice;
+
+import max.iv.usersubscriptionservice.dto.UserCreateRequestDto;
+import max.iv.usersubscriptionservice.dto.UserResponseDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Testcontainers
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class MetricsEndpointIntegrationTest {
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Container
+    public static PostgreSQLContainer<?> postgresContainer = new PostgreSQLContainer<>("postgres:16-alpine")
+            .withDatabaseName("test-metrics-db")
+            .withUsername("testmetricsuser")
+            .withPassword("testmetricspass");
+
+    @DynamicPropertySource
+    static void postgresqlProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgresContainer::getJdbcUrl);
+        registry.add("spring.datasource.username", postgresContainer::getUsername);
+        registry.add("spring.datasource.password", postgresContainer::getPassword);
+        registry.add("spring.liquibase.enabled", () -> "true");
+        registry.add("spring.liquibase.change-log", () -> "classpath:db/changelog/db.changelog-master.yaml");
+    }
+
+    private String baseUrl;
+
+    @BeforeEach
+    void setUp() {
+        baseUrl = "http://localhost:" + port;
+    }
+
+    @Test
+    void shouldExposeEndpointRepositoryPoolAndHibernateMetrics() {
+        UserCreateRequestDto createDto = new UserCreateRequestDto(
+                "metricsuser", "metrics@example.com", "password123", "Metrics", "User");
+        ResponseEntity<UserResponseDto> created =
+                restTemplate.postForEntity(baseUrl + "/users", createDto, UserResponseDto.class);
+        assertThat(created.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        restTemplate.getForEntity(baseUrl + "/users/" + created.getBody().id(), UserResponseDto.class);
+
+        ResponseEntity<String> response = restTemplate.getForEntity(baseUrl + "/actuator/prometheus", String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody())
+                .contains("http_server_requests_seconds_bucket")
+                .contains("uri=\"/users/{id}\"")
+                .contains("spring_data_repository_invocations_seconds_count")
+                .contains("repository=\"UserRepository\"")
+                .contains("hikaricp_connections_active")
+                .contains("hikaricp_connections_pending")
+                .contains("hikaricp_connections_acquire_seconds")
+                .contains("hibernate_query_executions_total")
+                .contains("hibernate_entities_loads_total")
+                .contains("hibernate_flushes_total");
+    }
+}
@@ -0,0 +1,153 @@
+package max.iv.usersubscriptionservice;
+
+import max.iv.usersubscriptionservice.dto.SubscriptionResponseDto;
+import max.iv.usersubscriptionservice.dto.UserResponseDto;
+import max.iv.usersubscriptionservice.dto.UserWithSubscriptionNamesDto;
+import max.iv.usersubscriptionservice.models.enums.ServiceName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Читающие эндпоинты в профиле reactive (WebFlux + R2DBC) отдают те же DTO, что и servlet-стек.
+ * Пишущих эндпоинтов в этом режиме нет, поэтому данные готовятся через JdbcTemplate.
+ */
+@Testcontainers
+@ActiveProfiles("reactive")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class ReactiveReadIntegrationTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Container
+    public static PostgreSQLContainer<?> postgresContainer = new PostgreSQLContainer<>("postgres:16-alpine")
+            .withDatabaseName("test-reactive-db")
+            .withUsername("testreactiveuser")
+            .withPassword("testreactivepass");
+
+    @DynamicPropertySource
+    static void postgresqlProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgresContainer::getJdbcUrl);
+        registry.add("spring.datasource.username", postgresContainer::getUsername);
+        registry.add("spring.datasource.password", postgresContainer::getPassword);
+        registry.add("spring.r2dbc.url", () -> "r2dbc:postgresql://%s:%d/%s".formatted(postgresContainer.getHost(),
+                postgresContainer.getMappedPort(PostgreSQLContainer.POSTGRESQL_PORT), postgresContainer.getDatabaseName()));
+        registry.add("spring.liquibase.enabled", () -> "true");
+        registry.add("spring.liquibase.change-log", () -> "classpath:db/changelog/db.changelog-master.yaml");
+    }
+
+    @Test
+    void shouldServeUserReadsFromReactiveStack() {
+        UUID userId = insertUser("reactive.user");
+        insertSubscription(userId, ServiceName.YOUTUBE_PREMIUM);
+        insertSubscription(userId, ServiceName.NETFLIX_STANDARD);
+
+        UserResponseDto user = webTestClient.get().uri("/users/{id}", userId)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(UserResponseDto.class)
+                .returnResult().getResponseBody();
+        assertThat(user).isNotNull();
+        assertThat(user.username()).isEqualTo("reactive.user");
+        assertThat(user.createdAt()).isNotNull();
+
+        UserWithSubscriptionNamesDto withSubscriptions = webTestClient.get()
+                .uri("/users/{id}/with-subscriptions", userId)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(UserWithSubscriptionNamesDto.class)
+                .returnResult().getResponseBody();
+        assertThat(withSubscriptions).isNotNull();
+        assertThat(withSubscriptions.subscriptionNames()).containsExactly(
+                ServiceName.NETFLIX_STANDARD.getDisplayName(), ServiceName.YOUTUBE_PREMIUM.getDisplayName());
+
+        List<SubscriptionResponseDto> subscriptions = webTestClient.get().uri("/users/{id}/subscriptions", userId)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(SubscriptionResponseDto.class)
+                .returnResult().getResponseBody();
+        assertThat(subscriptions).hasSize(2)
+                .allSatisfy(subscription -> assertThat(subscription.userId()).isEqualTo(userId))
+                .extracting(SubscriptionResponseDto::serviceDisplayName)
+                .containsExactlyInAnyOrder(ServiceName.NETFLIX_STANDARD.getDisplayName(),
+                        ServiceName.YOUTUBE_PREMIUM.getDisplayName());
+    }
+
+    @Test
+    void shouldPageUsersInEveryCountMode() {
+        insertUser("reactive.page.a");
+        insertUser("reactive.page.b");
+        long users = jdbcTemplate.queryForObject("SELECT count(*) FROM users", Long.class);
+
+        webTestClient.get().uri("/users?size=1&sort=username,asc")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.content.length()").isEqualTo(1)
+                .jsonPath("$.page.totalElements").isEqualTo(users);
+
+        webTestClient.get().uri("/users?size=1&count=none")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.content.length()").isEqualTo(1)
+                .jsonPath("$.hasNext").isEqualTo(true);
+
+        webTestClient.get().uri("/users?size=1&count=estimated")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.content.length()").isEqualTo(1)
+                .jsonPath("$.page.totalElements").value(total -> assertThat(((Number) total).longValue()).isGreaterThan(1));
+
+        webTestClient.get().uri("/users?sort=password")
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void shouldReturnNotFoundAndTopWithCacheControl() {
+        UUID missingId = UUID.randomUUID();
+        webTestClient.get().uri("/users/{id}", missingId)
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody()
+                .jsonPath("$.message").isEqualTo("User not found with ID: " + missingId);
+        webTestClient.get().uri("/users/{id}/subscriptions", missingId)
+                .exchange()
+                .expectStatus().isNotFound();
+
+        webTestClient.get().uri("/subscriptions/top")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueMatches("Cache-Control", "max-age=\\d+.*");
+    }
+
+    private UUID insertUser(String username) {
+        return jdbcTemplate.queryForObject("INSERT INTO users (username, email, password, first_name, last_name) " +
+                "VALUES (?, ?, 'password', 'Reactive', 'User') RETURNING id", UUID.class, username, username + "@example.com");
+    }
+
+    private void insertSubscription(UUID userId, ServiceName serviceName) {
+        jdbcTemplate.update("INSERT INTO subscriptions (service_name, start_date, user_id) VALUES (?, ?, ?)",
+                serviceName.name(), LocalDate.now(), userId);
+    }
+}
@@ -0,0 +1,85 @@
+package max.iv.usersubscriptionservice;
+
+import max.iv.usersubscriptionservice.config.ReplicaHealthMonitor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Проверяет маршрутизацию соединений. Роль реплики играет та же база, подключенная с другим
+ * application_name, — по нему видно, какой пул обслужил транзакцию.
+ */
+@Testcontainers
+@SpringBootTest
+public class ReadReplicaRoutingIntegrationTest {
+
+    private static final String CURRENT_POOL_SQL = "SELECT current_setting('application_name')";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ReplicaHealthMonitor replicaHealthMonitor;
+
+    @Container
+    public static PostgreSQLContainer<?> postgresContainer = new PostgreSQLContainer<>("postgres:16-alpine")
+            .withDatabaseName("test-replica-db")
+            .withUsername("testreplicauser")
+            .withPassword("testreplicapass");
+
+    @DynamicPropertySource
+    static void postgresqlProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> postgresContainer.getJdbcUrl() + "&ApplicationName=primary");
+        registry.add("spring.datasource.username", postgresContainer::getUsername);
+        registry.add("spring.datasource.password", postgresContainer::getPassword);
+        registry.add("spring.liquibase.enabled", () -> "true");
+        registry.add("spring.liquibase.change-log", () -> "classpath:db/changelog/db.changelog-master.yaml");
+        registry.add("datasource.replica.url", () -> postgresContainer.getJdbcUrl() + "&ApplicationName=replica");
+    }
+
+    @AfterEach
+    void restoreReplica() {
+        replicaHealthMonitor.check();
+    }
+
+    @Test
+    void shouldRouteReadOnlyTransactionsToReplica() {
+        replicaHealthMonitor.check();
+
+        assertThat(currentPool(true)).isEqualTo("replica");
+        assertThat(currentPool(false)).isEqualTo("primary");
+        // Без транзакции соединение берется с primary
+        assertThat(jdbcTemplate.queryForObject(CURRENT_POOL_SQL, String.class)).isEqualTo("primary");
+    }
+
+    @Test
+    void shouldFallBackToPrimaryWhileReplicaIsUnavailable() {
+        replicaHealthMonitor.markUnavailable(new IllegalStateException("replica is down"));
+
+        assertThat(replicaHealthMonitor.isAvailable()).isFalse();
+        assertThat(currentPool(true)).isEqualTo("primary");
+
+        replicaHealthMonitor.check();
+        assertThat(currentPool(true)).isEqualTo("replica");
+    }
+
+    private String currentPool(boolean readOnly) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(readOnly);
+        return transactionTemplate.execute(status -> jdbcTemplate.queryForObject(CURRENT_POOL_SQL, String.class));
+    }
+}
@@ -0,0 +1,108 @@
+package max.iv.usersubscriptionservice;
+
+import max.iv.usersubscriptionservice.dto.CacheRegionStatisticsDto;
+import max.iv.usersubscriptionservice.dto.SubscriptionCreateRequestDto;
+import max.iv.usersubscriptionservice.dto.SubscriptionResponseDto;
+import max.iv.usersubscriptionservice.dto.UserCreateRequestDto;
+import max.iv.usersubscriptionservice.dto.UserResponseDto;
+import max.iv.usersubscriptionservice.dto.UserWithSubscriptionNamesDto;
+import max.iv.usersubscriptionservice.models.enums.ServiceName;
+import max.iv.usersubscriptionservice.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Testcontainers
+@ActiveProfiles("l2cache")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class SecondLevelCacheIntegrationTest {
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Container
+    public static PostgreSQLContainer<?> postgresContainer = new PostgreSQLContainer<>("postgres:16-alpine")
+            .withDatabaseName("test-cache-db")
+            .withUsername("testcacheuser")
+            .withPassword("testcachepass");
+
+    @DynamicPropertySource
+    static void postgresqlProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgresContainer::getJdbcUrl);
+        registry.add("spring.datasource.username", postgresContainer::getUsername);
+        registry.add("spring.datasource.password", postgresContainer::getPassword);
+        registry.add("spring.liquibase.enabled", () -> "true");
+        registry.add("spring.liquibase.change-log", () -> "classpath:db/changelog/db.changelog-master.yaml");
+    }
+
+    private String baseUrl;
+
+    @BeforeEach
+    void setUp() {
+        baseUrl = "http://localhost:" + port;
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void shouldServeCachedUserAndInvalidateSubscriptionsOnChange() {
+        // 1. Создаем пользователя с одной подпиской
+        UserResponseDto user = restTemplate.postForObject(baseUrl + "/users", new UserCreateRequestDto(
+                "cacheuser", "cache@example.com", "password", "Cache", "User"), UserResponseDto.class);
+        String subscriptionsUrl = baseUrl + "/users/" + user.id() + "/subscriptions";
+        restTemplate.postForObject(subscriptionsUrl,
+                new SubscriptionCreateRequestDto(ServiceName.YOUTUBE_PREMIUM, LocalDate.now(), null),
+                SubscriptionResponseDto.class);
+
+        // 2. Два чтения подряд: второе должно прийти из кэша
+        String withSubscriptionsUrl = baseUrl + "/users/" + user.id() + "/with-subscriptions";
+        restTemplate.getForObject(withSubscriptionsUrl, UserWithSubscriptionNamesDto.class);
+        UserWithSubscriptionNamesDto cached = restTemplate.getForObject(withSubscriptionsUrl, UserWithSubscriptionNamesDto.class);
+        assertThat(cached.subscriptionNames()).containsExactly("YouTube Premium");
+
+        // 3. Добавление и удаление подписки должны инвалидировать закэшированную коллекцию
+        SubscriptionResponseDto added = restTemplate.postForObject(subscriptionsUrl,
+                new SubscriptionCreateRequestDto(ServiceName.APPLE_MUSIC, LocalDate.now(), null),
+                SubscriptionResponseDto.class);
+        assertThat(restTemplate.getForObject(withSubscriptionsUrl, UserWithSubscriptionNamesDto.class).subscriptionNames())
+                .containsExactlyInAnyOrder("YouTube Premium", "Apple Music");
+
+        restTemplate.delete(subscriptionsUrl + "/" + added.id());
+        assertThat(restTemplate.getForObject(withSubscriptionsUrl, UserWithSubscriptionNamesDto.class).subscriptionNames())
+                .containsExactly("YouTube Premium");
+
+        // 4. Статистика по регионам доступна и показывает попадания
+        ResponseEntity<List<CacheRegionStatisticsDto>> statistics = restTemplate.exchange(
+                baseUrl + "/internal/cache/statistics",
+                HttpMethod.GET,
+                null,
+                new ParameterizedTypeReference<List<CacheRegionStatisticsDto>>() {}
+        );
+        assertThat(statistics.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(statistics.getBody()).extracting(CacheRegionStatisticsDto::region)
+                .contains("user", "user-subscriptions", "subscription");
+        assertThat(statistics.getBody()).anyMatch(region -> region.hitCount() > 0);
+    }
+}
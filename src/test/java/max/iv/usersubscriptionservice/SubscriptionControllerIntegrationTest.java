@@ -1,15 +1,21 @@
 package max.iv.usersubscriptionservice;
 
+import max.iv.usersubscriptionservice.dto.CursorPageDto;
+import max.iv.usersubscriptionservice.dto.SubscriptionBatchItemDto;
+import max.iv.usersubscriptionservice.dto.SubscriptionBatchItemResultDto;
+import max.iv.usersubscriptionservice.dto.SubscriptionBatchResultDto;
 import max.iv.usersubscriptionservice.dto.SubscriptionCreateRequestDto;
 import max.iv.usersubscriptionservice.dto.SubscriptionResponseDto;
 import max.iv.usersubscriptionservice.dto.TopSubscriptionDto;
 import max.iv.usersubscriptionservice.dto.UserCreateRequestDto;
 import max.iv.usersubscriptionservice.dto.UserResponseDto;
+import max.iv.usersubscriptionservice.expiry.SubscriptionExpiryEngine;
 import max.iv.usersubscriptionservice.models.Subscription;
 import max.iv.usersubscriptionservice.models.User;
 import max.iv.usersubscriptionservice.models.enums.ServiceName;
 import max.iv.usersubscriptionservice.repository.SubscriptionRepository;
 import max.iv.usersubscriptionservice.repository.UserRepository;
+import max.iv.usersubscriptionservice.statistics.SubscriptionPopularityCounter;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -19,6 +25,7 @@ import org.springframework.boot.test.web.server.LocalServerPort;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
@@ -27,10 +34,16 @@ import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -49,6 +62,12 @@ public class SubscriptionControllerIntegrationTest {
     @Autowired
     private SubscriptionRepository subscriptionRepository;
 
+    @Autowired
+    private SubscriptionPopularityCounter popularityCounter;
+
+    @Autowired
+    private SubscriptionExpiryEngine expiryEngine;
+
     @Container
     public static PostgreSQLContainer<?> postgresContainer = new PostgreSQLContainer<>("postgres:16-alpine")
             .withDatabaseName("test-sub-db")
@@ -75,6 +94,8 @@ public class SubscriptionControllerIntegrationTest {
         // Очищаем данные перед каждым тестом
         subscriptionRepository.deleteAll();
         userRepository.deleteAll();
+        // Очистка идет мимо сервисов, поэтому счетчики популярности сверяем с БД вручную
+        popularityCounter.reconcile();
 
         // Создаем тестового пользователя для большинства тестов подписок
         UserCreateRequestDto userCreateDto = new UserCreateRequestDto(
@@ -131,6 +152,78 @@ public class SubscriptionControllerIntegrationTest {
         assertThat(response.getBody().get("message")).asString().contains("User is already subscribed to Netflix Standard");
     }
 
+    @Test
+    void shouldAcceptOnlyOneOfConcurrentDuplicateSubscriptions() throws Exception {
+        String url = baseUserUrl + "/" + testUser.getId() + "/subscriptions";
+        SubscriptionCreateRequestDto createDto = new SubscriptionCreateRequestDto(
+                ServiceName.SPOTIFY_PREMIUM, LocalDate.now(), null
+        );
+
+        List<Callable<HttpStatusCode>> requests = Collections.nCopies(8,
+                () -> restTemplate.postForEntity(url, createDto, Map.class).getStatusCode());
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<HttpStatusCode> statuses = new ArrayList<>();
+        try {
+            for (Future<HttpStatusCode> future : executor.invokeAll(requests)) {
+                statuses.add(future.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(statuses).filteredOn(status -> status.equals(HttpStatus.CREATED)).hasSize(1);
+        assertThat(statuses).filteredOn(status -> status.equals(HttpStatus.CONFLICT)).hasSize(7);
+        assertThat(subscriptionRepository.findByUserId(testUser.getId())).hasSize(1);
+    }
+
+    @Test
+    void shouldFailToAddSubscriptionForNonExistentUser() {
+        String url = baseUserUrl + "/" + UUID.randomUUID() + "/subscriptions";
+        SubscriptionCreateRequestDto createDto = new SubscriptionCreateRequestDto(
+                ServiceName.APPLE_MUSIC, LocalDate.now(), null
+        );
+
+        ResponseEntity<Map> response = restTemplate.postForEntity(url, createDto, Map.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+        assertThat(response.getBody().get("message")).asString().contains("User not found with ID");
+    }
+
+    @Test
+    void shouldAddSubscriptionsInBatch() {
+        String url = baseUserUrl + "/" + testUser.getId() + "/subscriptions";
+        restTemplate.postForEntity(url, new SubscriptionCreateRequestDto(ServiceName.VK_MUSIC, LocalDate.now(), null),
+                SubscriptionResponseDto.class);
+        UUID unknownUserId = UUID.randomUUID();
+
+        List<SubscriptionBatchItemDto> items = List.of(
+                new SubscriptionBatchItemDto(testUser.getId(), ServiceName.YOUTUBE_PREMIUM, LocalDate.now(), null),
+                new SubscriptionBatchItemDto(testUser.getId(), ServiceName.VK_MUSIC, LocalDate.now(), null),
+                new SubscriptionBatchItemDto(unknownUserId, ServiceName.YOUTUBE_PREMIUM, LocalDate.now(), null),
+                new SubscriptionBatchItemDto(testUser.getId(), null, LocalDate.now(), null),
+                new SubscriptionBatchItemDto(testUser.getId(), ServiceName.YOUTUBE_PREMIUM, LocalDate.now(), null)
+        );
+        ResponseEntity<SubscriptionBatchResultDto> response = restTemplate.postForEntity(
+                baseSubscriptionUrl + "/subscriptions:batch", items, SubscriptionBatchResultDto.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        SubscriptionBatchResultDto result = response.getBody();
+        assertThat(result).isNotNull();
+        assertThat(result.created()).isEqualTo(1);
+        assertThat(result.failed()).isEqualTo(4);
+        assertThat(result.items()).extracting(SubscriptionBatchItemResultDto::status).containsExactly(
+                SubscriptionBatchItemResultDto.Status.CREATED,
+                SubscriptionBatchItemResultDto.Status.ALREADY_SUBSCRIBED,
+                SubscriptionBatchItemResultDto.Status.USER_NOT_FOUND,
+                SubscriptionBatchItemResultDto.Status.INVALID,
+                SubscriptionBatchItemResultDto.Status.ALREADY_SUBSCRIBED);
+
+        // Проверка в БД
+        UUID createdId = result.items().get(0).subscriptionId();
+        assertThat(subscriptionRepository.findById(createdId)).isPresent();
+        assertThat(subscriptionRepository.findByUserId(testUser.getId())).hasSize(2);
+    }
+
     @Test
     void shouldGetUserSubscriptions() {
         String url = baseUserUrl + "/" + testUser.getId() + "/subscriptions";
@@ -275,4 +368,131 @@ public class SubscriptionControllerIntegrationTest {
         assertThat(topSubscriptions.get(2).serviceName()).isEqualTo(ServiceName.VK_MUSIC);
         assertThat(topSubscriptions.get(2).subscriptionCount()).isEqualTo(1);
     }
+
+    @Test
+    void shouldGetTopSubscriptionsWithCustomLimit() {
+        String url = baseUserUrl + "/" + testUser.getId() + "/subscriptions";
+        restTemplate.postForEntity(url, new SubscriptionCreateRequestDto(ServiceName.YOUTUBE_PREMIUM, LocalDate.now(),
+                null), SubscriptionResponseDto.class);
+        restTemplate.postForEntity(url, new SubscriptionCreateRequestDto(ServiceName.APPLE_MUSIC, LocalDate.now(),
+                null), SubscriptionResponseDto.class);
+
+        ResponseEntity<List<TopSubscriptionDto>> response = restTemplate.exchange(
+                baseSubscriptionUrl + "/subscriptions/top?limit=1",
+                HttpMethod.GET,
+                null,
+                new ParameterizedTypeReference<List<TopSubscriptionDto>>() {}
+        );
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).hasSize(1);
+        assertThat(response.getBody().get(0).serviceName()).isEqualTo(ServiceName.APPLE_MUSIC);
+
+        // После удаления пользователя его подписки не должны учитываться в топе
+        restTemplate.delete(baseUserUrl + "/" + testUser.getId());
+        ResponseEntity<List<TopSubscriptionDto>> afterDelete = restTemplate.exchange(
+                baseSubscriptionUrl + "/subscriptions/top",
+                HttpMethod.GET,
+                null,
+                new ParameterizedTypeReference<List<TopSubscriptionDto>>() {}
+        );
+        assertThat(afterDelete.getBody()).isEmpty();
+    }
+
+    @Test
+    void shouldExpireEndedSubscriptions() {
+        // 1. Одна подписка заканчивается сегодня, вторая бессрочная
+        restTemplate.postForEntity(baseUserUrl + "/" + testUser.getId() + "/subscriptions",
+                new SubscriptionCreateRequestDto(ServiceName.NETFLIX_STANDARD, LocalDate.now(), LocalDate.now()),
+                SubscriptionResponseDto.class);
+        restTemplate.postForEntity(baseUserUrl + "/" + testUser.getId() + "/subscriptions",
+                new SubscriptionCreateRequestDto(ServiceName.VK_MUSIC, LocalDate.now(), null),
+                SubscriptionResponseDto.class);
+
+        // 2. Через два дня первая подписка считается истекшей
+        assertThat(expiryEngine.expireDue(LocalDate.now().plusDays(2))).isEqualTo(1);
+        assertThat(expiryEngine.expireDue(LocalDate.now().plusDays(2))).isZero();
+
+        // 3. Она пропадает и из подписок пользователя, и из топа
+        assertThat(subscriptionRepository.findByUserId(testUser.getId()))
+                .extracting(Subscription::getServiceName)
+                .containsExactly(ServiceName.VK_MUSIC);
+        ResponseEntity<List<TopSubscriptionDto>> top = restTemplate.exchange(
+                baseSubscriptionUrl + "/subscriptions/top",
+                HttpMethod.GET,
+                null,
+                new ParameterizedTypeReference<List<TopSubscriptionDto>>() {}
+        );
+        assertThat(top.getBody()).extracting(TopSubscriptionDto::serviceName)
+                .containsExactly(ServiceName.VK_MUSIC);
+    }
+
+    @Test
+    void shouldSearchSubscriptionsByServiceAndDatesWithCursor() {
+        // 1. Три пользователя с Netflix, начавшие в разные дни, и одна подписка другого сервиса
+        LocalDate today = LocalDate.now();
+        List<UUID> userIds = new ArrayList<>(List.of(testUser.getId()));
+        for (int i = 1; i <= 2; i++) {
+            userIds.add(restTemplate.postForObject(baseUserUrl, new UserCreateRequestDto(
+                    "searchuser" + i, "search" + i + "@example.com", "password", "Search", "User"), UserResponseDto.class).id());
+        }
+        for (int i = 0; i < userIds.size(); i++) {
+            restTemplate.postForEntity(baseUserUrl + "/" + userIds.get(i) + "/subscriptions",
+                    new SubscriptionCreateRequestDto(ServiceName.NETFLIX_STANDARD, today.minusDays(30 - i), null),
+                    SubscriptionResponseDto.class);
+        }
+        restTemplate.postForEntity(baseUserUrl + "/" + userIds.get(0) + "/subscriptions",
+                new SubscriptionCreateRequestDto(ServiceName.VK_MUSIC, today.minusDays(30), null),
+                SubscriptionResponseDto.class);
+        // Подписка, которая начнется только через неделю, не активна сегодня
+        restTemplate.postForEntity(baseUserUrl + "/" + userIds.get(1) + "/subscriptions",
+                new SubscriptionCreateRequestDto(ServiceName.YANDEX_PLUS, today.plusDays(7), null),
+                SubscriptionResponseDto.class);
+
+        // 2. Проходим активные сегодня подписки Netflix страницами по две
+        List<LocalDate> startDates = new ArrayList<>();
+        String cursor = "";
+        int pages = 0;
+        do {
+            ResponseEntity<CursorPageDto<SubscriptionResponseDto>> response = restTemplate.exchange(
+                    baseSubscriptionUrl + "/subscriptions?serviceName=NETFLIX_STANDARD&activeOn=" + today
+                            + "&size=2&cursor=" + cursor,
+                    HttpMethod.GET,
+                    null,
+                    new ParameterizedTypeReference<CursorPageDto<SubscriptionResponseDto>>() {}
+            );
+            assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+            response.getBody().content().forEach(subscription -> {
+                assertThat(subscription.serviceName()).isEqualTo(ServiceName.NETFLIX_STANDARD);
+                startDates.add(subscription.startDate());
+            });
+            cursor = response.getBody().nextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertThat(pages).isEqualTo(2);
+        assertThat(startDates).containsExactly(today.minusDays(30), today.minusDays(29), today.minusDays(28));
+
+        // 3. Фильтр по дате начала и отсутствие активных подписок Яндекс.Плюс на сегодня
+        ResponseEntity<CursorPageDto<SubscriptionResponseDto>> startedAfter = restTemplate.exchange(
+                baseSubscriptionUrl + "/subscriptions?serviceName=NETFLIX_STANDARD&startedAfter=" + today.minusDays(30),
+                HttpMethod.GET,
+                null,
+                new ParameterizedTypeReference<CursorPageDto<SubscriptionResponseDto>>() {}
+        );
+        assertThat(startedAfter.getBody().content()).hasSize(2);
+        ResponseEntity<CursorPageDto<SubscriptionResponseDto>> notYetActive = restTemplate.exchange(
+                baseSubscriptionUrl + "/subscriptions?serviceName=YANDEX_PLUS&activeOn=" + today,
+                HttpMethod.GET,
+                null,
+                new ParameterizedTypeReference<CursorPageDto<SubscriptionResponseDto>>() {}
+        );
+        assertThat(notYetActive.getBody().content()).isEmpty();
+
+        // 4. Без сервиса или с неизвестным сервисом — 400
+        assertThat(restTemplate.getForEntity(baseSubscriptionUrl + "/subscriptions", String.class).getStatusCode())
+                .isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(restTemplate.getForEntity(baseSubscriptionUrl + "/subscriptions?serviceName=UNKNOWN", String.class)
+                .getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
 }
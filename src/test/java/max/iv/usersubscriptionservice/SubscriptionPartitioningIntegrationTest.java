@@ -0,0 +1,137 @@
+package max.iv.usersubscriptionservice;
+
+import max.iv.usersubscriptionservice.models.enums.ServiceName;
+import max.iv.usersubscriptionservice.partitioning.SubscriptionPartitionBackfill;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.regex.MatchResult;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * На пустой базе миграции сразу переключают subscriptions на секционированную по хэшу user_id таблицу.
+ * Проверяет секции, итоговые имена ограничений и индексов и по EXPLAIN — что запросы с user_id
+ * читают одну секцию.
+ */
+@Testcontainers
+@SpringBootTest
+public class SubscriptionPartitioningIntegrationTest {
+
+    private static final int USERS = 2_000;
+
+    private static final int PARTITIONS = 16;
+
+    private static final Pattern PARTITION = Pattern.compile("subscriptions_p\\d{2}");
+
+    private static boolean seeded;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private SubscriptionPartitionBackfill backfill;
+
+    @Container
+    public static PostgreSQLContainer<?> postgresContainer = new PostgreSQLContainer<>("postgres:16-alpine")
+            .withDatabaseName("test-partition-db")
+            .withUsername("testpartitionuser")
+            .withPassword("testpartitionpass");
+
+    @DynamicPropertySource
+    static void postgresqlProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgresContainer::getJdbcUrl);
+        registry.add("spring.datasource.username", postgresContainer::getUsername);
+        registry.add("spring.datasource.password", postgresContainer::getPassword);
+        registry.add("spring.liquibase.enabled", () -> "true");
+        registry.add("spring.liquibase.change-log", () -> "classpath:db/changelog/db.changelog-master.yaml");
+    }
+
+    @BeforeEach
+    void seedDataset() {
+        if (seeded) {
+            return;
+        }
+        jdbcTemplate.update("INSERT INTO users (username, email, password) " +
+                "SELECT 'partition.user.' || g, 'partition.user.' || g || '@example.com', 'password' " +
+                "FROM generate_series(1, ?) g", USERS);
+        jdbcTemplate.update("INSERT INTO subscriptions (service_name, start_date, user_id) " +
+                "SELECT s.service_name, DATE '2024-01-01', u.id " +
+                "FROM users u CROSS JOIN unnest(?::varchar[]) AS s(service_name)",
+                (Object) Arrays.stream(ServiceName.values()).map(Enum::name).toArray(String[]::new));
+        jdbcTemplate.execute("ANALYZE subscriptions");
+        seeded = true;
+    }
+
+    @Test
+    void shouldSwapInHashPartitionedTable() {
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT relkind::text FROM pg_class WHERE oid = 'subscriptions'::regclass", String.class))
+                .isEqualTo("p");
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM pg_inherits WHERE inhparent = 'subscriptions'::regclass", Integer.class))
+                .isEqualTo(PARTITIONS);
+        assertThat(jdbcTemplate.queryForList(
+                "SELECT conname FROM pg_constraint WHERE conrelid = 'subscriptions'::regclass", String.class))
+                .containsExactlyInAnyOrder("subscriptions_pkey", "fk_subscriptions_user");
+        assertThat(jdbcTemplate.queryForList(
+                "SELECT indexrelid::regclass::text FROM pg_index WHERE indrelid = 'subscriptions'::regclass",
+                String.class))
+                .containsExactlyInAnyOrder("subscriptions_pkey", "uq_subscriptions_user_id_service_name",
+                        "idx_subscriptions_service_start_end", "idx_subscriptions_end_date");
+        assertThat(jdbcTemplate.queryForList(
+                "SELECT tgname FROM pg_trigger WHERE tgrelid = 'subscriptions'::regclass AND NOT tgisinternal",
+                String.class))
+                .containsExactly("trg_subscriptions_change_log");
+        // Временные объекты переноса удалены вместе со старой таблицей
+        assertThat(jdbcTemplate.queryForObject("SELECT to_regclass('subscriptions_partitioned') IS NULL " +
+                "AND to_regclass('subscriptions_partition_backfill') IS NULL", Boolean.class)).isTrue();
+        assertThat(backfill.backfill()).isZero();
+    }
+
+    @Test
+    void shouldSpreadUsersOverAllPartitions() {
+        List<Integer> rowsPerPartition = jdbcTemplate.queryForList(
+                "SELECT count(*) FROM subscriptions GROUP BY tableoid", Integer.class);
+
+        assertThat(rowsPerPartition).hasSize(PARTITIONS);
+        int average = USERS * ServiceName.values().length / PARTITIONS;
+        assertThat(rowsPerPartition).allSatisfy(rows -> assertThat(rows).isBetween(average / 2, average * 2));
+    }
+
+    // Запросы повторяют операторы SubscriptionRepository и SubscriptionJdbcRepository, где есть user_id
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "SELECT * FROM subscriptions WHERE user_id = ?",
+            "SELECT * FROM subscriptions WHERE user_id = ? AND service_name = 'NETFLIX_STANDARD'",
+            "SELECT id FROM subscriptions WHERE id = ? AND user_id = ?",
+            "DELETE FROM subscriptions WHERE id = ? AND user_id = ?",
+            "DELETE FROM subscriptions WHERE user_id = ?"})
+    void shouldPruneToOnePartitionByUserId(String sql) {
+        UUID userId = jdbcTemplate.queryForObject("SELECT id FROM users ORDER BY id LIMIT 1", UUID.class);
+        Object[] args = sql.contains("WHERE id = ?")
+                ? new Object[]{UUID.randomUUID(), userId}
+                : new Object[]{userId};
+
+        String plan = String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql, String.class, args));
+
+        Matcher matcher = PARTITION.matcher(plan);
+        List<String> partitions = matcher.results().map(MatchResult::group).distinct().toList();
+        assertThat(partitions).as(plan).hasSize(1);
+    }
+}
@@ -0,0 +1,104 @@
+package max.iv.usersubscriptionservice;
+
+import max.iv.usersubscriptionservice.models.enums.ServiceName;
+import max.iv.usersubscriptionservice.pagination.SubscriptionKeysetCursor;
+import max.iv.usersubscriptionservice.repository.SubscriptionSearchQuery;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Проверяет по EXPLAIN, что все варианты поиска подписок идут через индекс
+ * (service_name, start_date, end_date), а не через последовательное чтение таблицы.
+ */
+@Testcontainers
+@SpringBootTest
+public class SubscriptionSearchQueryPlanIntegrationTest {
+
+    private static final int USERS = 20_000;
+
+    private static final String INDEX_NAME = "idx_subscriptions_service_start_end";
+
+    private static boolean seeded;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Container
+    public static PostgreSQLContainer<?> postgresContainer = new PostgreSQLContainer<>("postgres:16-alpine")
+            .withDatabaseName("test-plan-db")
+            .withUsername("testplanuser")
+            .withPassword("testplanpass");
+
+    @DynamicPropertySource
+    static void postgresqlProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgresContainer::getJdbcUrl);
+        registry.add("spring.datasource.username", postgresContainer::getUsername);
+        registry.add("spring.datasource.password", postgresContainer::getPassword);
+        registry.add("spring.liquibase.enabled", () -> "true");
+        registry.add("spring.liquibase.change-log", () -> "classpath:db/changelog/db.changelog-master.yaml");
+    }
+
+    @BeforeEach
+    void seedDataset() {
+        if (seeded) {
+            return;
+        }
+        // Каждый пользователь подписан на все сервисы; даты начала разбросаны на три года, половина подписок бессрочные
+        jdbcTemplate.update("INSERT INTO users (username, email, password) " +
+                "SELECT 'plan.user.' || g, 'plan.user.' || g || '@example.com', 'password' " +
+                "FROM generate_series(1, ?) g", USERS);
+        jdbcTemplate.update("INSERT INTO subscriptions (service_name, start_date, end_date, user_id) " +
+                "SELECT s.service_name, DATE '2023-01-01' + d.offset_days, " +
+                "CASE WHEN d.offset_days % 2 = 0 THEN NULL ELSE DATE '2023-01-01' + d.offset_days + 365 END, u.id " +
+                "FROM users u CROSS JOIN unnest(?::varchar[]) AS s(service_name) " +
+                "CROSS JOIN LATERAL (SELECT abs(hashtext(u.id::text || s.service_name)) % 1095 AS offset_days) d",
+                (Object) Arrays.stream(ServiceName.values()).map(Enum::name).toArray(String[]::new));
+        jdbcTemplate.execute("ANALYZE users");
+        jdbcTemplate.execute("ANALYZE subscriptions");
+        seeded = true;
+    }
+
+    static Stream<Arguments> searchQueries() {
+        LocalDate date = LocalDate.of(2024, 6, 1);
+        SubscriptionKeysetCursor cursor = new SubscriptionKeysetCursor(date, new UUID(0L, 0L));
+        return Stream.of(
+                Arguments.of("service only", SubscriptionSearchQuery.of(
+                        ServiceName.NETFLIX_STANDARD, null, null, null, null, 21)),
+                Arguments.of("active on", SubscriptionSearchQuery.of(
+                        ServiceName.NETFLIX_STANDARD, date, null, null, null, 21)),
+                Arguments.of("started after", SubscriptionSearchQuery.of(
+                        ServiceName.NETFLIX_STANDARD, null, date, null, null, 21)),
+                Arguments.of("ends before", SubscriptionSearchQuery.of(
+                        ServiceName.NETFLIX_STANDARD, null, null, date, null, 21)),
+                Arguments.of("all filters after cursor", SubscriptionSearchQuery.of(
+                        ServiceName.NETFLIX_STANDARD, date, date.minusYears(1), date.plusYears(1), cursor, 21)));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("searchQueries")
+    void shouldSearchThroughServiceDatesIndex(String description, SubscriptionSearchQuery query) {
+        String plan = jdbcTemplate.queryForObject("EXPLAIN (FORMAT JSON) " + query.sql(), String.class,
+                query.args().toArray());
+
+        // Таблица секционирована: в плане индексы секций, <INDEX_NAME>_pNN
+        assertThat(plan).contains("\"Index Name\": \"" + INDEX_NAME + "_p");
+        assertThat(plan).doesNotContain("Seq Scan");
+    }
+}
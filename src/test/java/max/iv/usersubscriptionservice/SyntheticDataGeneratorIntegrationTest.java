@@ -0,0 +1,128 @@
+package max.iv.usersubscriptionservice;
+
+import max.iv.usersubscriptionservice.models.enums.ServiceName;
+import max.iv.usersubscriptionservice.seed.SyntheticDataGenerator;
+import max.iv.usersubscriptionservice.seed.SyntheticDataset;
+import max.iv.usersubscriptionservice.statistics.SubscriptionPopularityCounter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@Testcontainers
+@SpringBootTest
+public class SyntheticDataGeneratorIntegrationTest {
+
+    private static final SyntheticDataset DATASET =
+            new SyntheticDataset(7L, 3_000, 2.0, 1.5, 0.4, 1095, LocalDate.of(2025, 1, 1));
+
+    private static final String USERS_CHECKSUM_SQL = "SELECT md5(string_agg(id || username || email || " +
+            "extract(epoch FROM created_time), ',' ORDER BY id)) FROM users";
+
+    private static final String SUBSCRIPTIONS_CHECKSUM_SQL = "SELECT md5(string_agg(id || service_name || " +
+            "start_date || coalesce(end_date::text, '-') || user_id || extract(epoch FROM created_time), ',' " +
+            "ORDER BY id)) FROM subscriptions";
+
+    @Autowired
+    private SyntheticDataGenerator generator;
+
+    @Autowired
+    private SubscriptionPopularityCounter popularityCounter;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Container
+    public static PostgreSQLContainer<?> postgresContainer = new PostgreSQLContainer<>("postgres:16-alpine")
+            .withDatabaseName("test-seed-db")
+            .withUsername("testseeduser")
+            .withPassword("testseedpass");
+
+    @DynamicPropertySource
+    static void postgresqlProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgresContainer::getJdbcUrl);
+        registry.add("spring.datasource.username", postgresContainer::getUsername);
+        registry.add("spring.datasource.password", postgresContainer::getPassword);
+        registry.add("spring.liquibase.enabled", () -> "true");
+        registry.add("spring.liquibase.change-log", () -> "classpath:db/changelog/db.changelog-master.yaml");
+        registry.add("subscriptions.expiry.enabled", () -> "false");
+    }
+
+    @BeforeEach
+    void clearDatabase() {
+        jdbcTemplate.execute("TRUNCATE users CASCADE");
+    }
+
+    @Test
+    void shouldLoadSameRowsForSameSeedWhateverProducersAndChunks() {
+        SyntheticDataGenerator.Result parallel = generator.generate(DATASET, 4, 250);
+        String usersChecksum = jdbcTemplate.queryForObject(USERS_CHECKSUM_SQL, String.class);
+        String subscriptionsChecksum = jdbcTemplate.queryForObject(SUBSCRIPTIONS_CHECKSUM_SQL, String.class);
+
+        assertThat(parallel.users()).isEqualTo(3_000);
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM users", Long.class)).isEqualTo(3_000);
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM subscriptions", Long.class))
+                .isEqualTo(parallel.subscriptions());
+
+        jdbcTemplate.execute("TRUNCATE users CASCADE");
+        SyntheticDataGenerator.Result sequential = generator.generate(DATASET, 1, 1_000);
+
+        assertThat(sequential.subscriptions()).isEqualTo(parallel.subscriptions());
+        assertThat(jdbcTemplate.queryForObject(USERS_CHECKSUM_SQL, String.class)).isEqualTo(usersChecksum);
+        assertThat(jdbcTemplate.queryForObject(SUBSCRIPTIONS_CHECKSUM_SQL, String.class))
+                .isEqualTo(subscriptionsChecksum);
+    }
+
+    @Test
+    void shouldResumeInterruptedLoadWithSameRows() {
+        generator.generate(DATASET, 4, 250);
+        String usersChecksum = jdbcTemplate.queryForObject(USERS_CHECKSUM_SQL, String.class);
+        String subscriptionsChecksum = jdbcTemplate.queryForObject(SUBSCRIPTIONS_CHECKSUM_SQL, String.class);
+
+        // Прерванная загрузка: пользователи разбросаны по чанкам, подписки удаляются каскадом
+        jdbcTemplate.update("DELETE FROM users WHERE id IN (SELECT id FROM users ORDER BY id LIMIT 1000)");
+        SyntheticDataGenerator.Result resumed = generator.generate(DATASET, 2, 700);
+
+        assertThat(resumed.users()).isEqualTo(1_000);
+        assertThat(jdbcTemplate.queryForObject(USERS_CHECKSUM_SQL, String.class)).isEqualTo(usersChecksum);
+        assertThat(jdbcTemplate.queryForObject(SUBSCRIPTIONS_CHECKSUM_SQL, String.class))
+                .isEqualTo(subscriptionsChecksum);
+    }
+
+    @Test
+    void shouldRejectLoadWithoutProducersOrUsersPerChunk() {
+        assertThatThrownBy(() -> generator.generate(DATASET, 0, 250)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> generator.generate(DATASET, 4, 0)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void shouldSkewSubscriptionsTowardsLeadingServicesAndReconcileCounters() {
+        generator.generate(DATASET, 2, 500);
+
+        Map<ServiceName, Long> counts = jdbcTemplate.queryForList(
+                        "SELECT service_name, count(*) AS total FROM subscriptions GROUP BY service_name").stream()
+                .collect(Collectors.toMap(row -> ServiceName.valueOf((String) row.get("service_name")),
+                        row -> ((Number) row.get("total")).longValue()));
+
+        ServiceName[] services = ServiceName.values();
+        assertThat(counts).hasSize(services.length);
+        assertThat(counts.get(services[0])).isGreaterThan(2 * counts.get(services[services.length - 1]));
+        long[] snapshot = popularityCounter.snapshot();
+        for (ServiceName service : services) {
+            assertThat(snapshot[service.ordinal()]).isEqualTo(counts.get(service));
+        }
+    }
+}
@@ -1,8 +1,19 @@
 package max.iv.usersubscriptionservice;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import max.iv.usersubscriptionservice.dto.CursorPageDto;
+import max.iv.usersubscriptionservice.dto.SliceDto;
+import max.iv.usersubscriptionservice.dto.SubscriptionCreateRequestDto;
+import max.iv.usersubscriptionservice.dto.SubscriptionResponseDto;
+import max.iv.usersubscriptionservice.dto.UserAvailabilityDto;
+import max.iv.usersubscriptionservice.dto.UserBulkImportErrorDto;
+import max.iv.usersubscriptionservice.dto.UserBulkImportResultDto;
 import max.iv.usersubscriptionservice.dto.UserCreateRequestDto;
 import max.iv.usersubscriptionservice.dto.UserResponseDto;
 import max.iv.usersubscriptionservice.dto.UserUpdateRequestDto;
+import max.iv.usersubscriptionservice.dto.UserWithSubscriptionNamesDto;
 import max.iv.usersubscriptionservice.models.User;
+import max.iv.usersubscriptionservice.models.enums.ServiceName;
 import max.iv.usersubscriptionservice.repository.UserRepository;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
@@ -10,9 +21,12 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.web.client.TestRestTemplate;
 import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
@@ -22,6 +36,9 @@ import org.testcontainers.junit.jupiter.Testcontainers;
 
 import org.springframework.boot.test.context.SpringBootTest;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
@@ -38,6 +55,9 @@ public class UserControllerIntegrationTest {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @Container
     public static PostgreSQLContainer<?> postgresContainer = new PostgreSQLContainer<>("postgres:16-alpine")
             .withDatabaseName("test-user-subscription-db")
@@ -109,6 +129,67 @@ public class UserControllerIntegrationTest {
         assertThat(errorBody.get("message")).asString().contains("User with username duplicateuser already exists");
     }
 
+    @Test
+    void shouldFailToCreateUserWithDuplicateEmail() {
+        restTemplate.postForEntity(baseUrl, new UserCreateRequestDto(
+                "emailowner", "same@example.com", "password123", "First", "User"), UserResponseDto.class);
+
+        ResponseEntity<Map> response = restTemplate.postForEntity(baseUrl, new UserCreateRequestDto(
+                "emailthief", "same@example.com", "password123", "Second", "User"), Map.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+        assertThat(response.getBody().get("message")).asString().contains("User with email same@example.com already exists");
+        assertThat(userRepository.findByUsername("emailthief")).isEmpty();
+    }
+
+    @Test
+    void shouldFailToUpdateUserToTakenUsernameOrEmail() {
+        restTemplate.postForEntity(baseUrl, new UserCreateRequestDto(
+                "takenname", "taken@example.com", "password123", "Taken", "User"), UserResponseDto.class);
+        UserResponseDto user = restTemplate.postForObject(baseUrl, new UserCreateRequestDto(
+                "renamer", "renamer@example.com", "password123", "Re", "Namer"), UserResponseDto.class);
+
+        ResponseEntity<Map> usernameResponse = restTemplate.exchange(baseUrl + "/" + user.id(), HttpMethod.PUT,
+                new HttpEntity<>(new UserUpdateRequestDto("takenname", null, null, null, null)), Map.class);
+        ResponseEntity<Map> emailResponse = restTemplate.exchange(baseUrl + "/" + user.id(), HttpMethod.PUT,
+                new HttpEntity<>(new UserUpdateRequestDto(null, "taken@example.com", null, null, null)), Map.class);
+        // Повторная установка собственного username — не конфликт
+        ResponseEntity<UserResponseDto> sameResponse = restTemplate.exchange(baseUrl + "/" + user.id(), HttpMethod.PUT,
+                new HttpEntity<>(new UserUpdateRequestDto("renamer", null, null, "Renamed", null)), UserResponseDto.class);
+
+        assertThat(usernameResponse.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+        assertThat(usernameResponse.getBody().get("message")).asString().contains("Username takenname is already taken");
+        assertThat(emailResponse.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+        assertThat(emailResponse.getBody().get("message")).asString().contains("Email taken@example.com is already taken");
+        assertThat(sameResponse.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(sameResponse.getBody().firstName()).isEqualTo("Renamed");
+    }
+
+    @Test
+    void shouldReportUsernameAndEmailAvailability() {
+        restTemplate.postForEntity(baseUrl, new UserCreateRequestDto(
+                "takenuser", "taken.user@example.com", "password123", "Taken", "User"), UserResponseDto.class);
+
+        ResponseEntity<UserAvailabilityDto> taken = restTemplate.getForEntity(
+                baseUrl + "/availability?username=takenuser&email=taken.user@example.com", UserAvailabilityDto.class);
+        ResponseEntity<UserAvailabilityDto> free = restTemplate.getForEntity(
+                baseUrl + "/availability?username=freeuser", UserAvailabilityDto.class);
+        ResponseEntity<Map> missing = restTemplate.getForEntity(baseUrl + "/availability", Map.class);
+
+        assertThat(taken.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(taken.getBody().usernameAvailable()).isFalse();
+        assertThat(taken.getBody().emailAvailable()).isFalse();
+        assertThat(free.getBody().usernameAvailable()).isTrue();
+        assertThat(free.getBody().emailAvailable()).isNull();
+        assertThat(missing.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+
+        // После удаления значение остаётся в фильтре, но проверка по БД возвращает доступность
+        restTemplate.delete(baseUrl + "/" + userRepository.findByUsername("takenuser").orElseThrow().getId());
+        ResponseEntity<UserAvailabilityDto> released = restTemplate.getForEntity(
+                baseUrl + "/availability?username=takenuser", UserAvailabilityDto.class);
+        assertThat(released.getBody().usernameAvailable()).isTrue();
+    }
+
     @Test
     void shouldGetUserByIdSuccessfully() {
         // 1. Создаем пользователя
@@ -138,6 +219,52 @@ public class UserControllerIntegrationTest {
         assertThat(errorBody.get("message")).asString().contains("User not found with ID: " + nonExistentId);
     }
 
+    @Test
+    void shouldAnswerConditionalGetWithNotModifiedUntilUserOrSubscriptionsChange() {
+        UserResponseDto createdUser = restTemplate.postForObject(baseUrl,
+                new UserCreateRequestDto("etaguser", "etag@example.com", "pass", "ETag", "User"), UserResponseDto.class);
+        assertThat(createdUser).isNotNull();
+        String userUrl = baseUrl + "/" + createdUser.id();
+
+        ResponseEntity<UserResponseDto> first = restTemplate.getForEntity(userUrl, UserResponseDto.class);
+        String userETag = first.getHeaders().getETag();
+        assertThat(userETag).startsWith("\"");
+        ResponseEntity<List<SubscriptionResponseDto>> firstSubscriptions = restTemplate.exchange(
+                userUrl + "/subscriptions", HttpMethod.GET, null,
+                new ParameterizedTypeReference<List<SubscriptionResponseDto>>() {});
+        String subscriptionsETag = firstSubscriptions.getHeaders().getETag();
+        assertThat(subscriptionsETag).isNotNull();
+
+        // Совпавший If-None-Match даёт 304 без тела
+        ResponseEntity<String> notModified = conditionalGet(userUrl, userETag);
+        assertThat(notModified.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(notModified.getBody()).isNull();
+        assertThat(conditionalGet(userUrl + "/subscriptions", subscriptionsETag).getStatusCode())
+                .isEqualTo(HttpStatus.NOT_MODIFIED);
+
+        // Новая подписка меняет ETag списка подписок, но не пользователя
+        restTemplate.postForEntity(userUrl + "/subscriptions",
+                new SubscriptionCreateRequestDto(ServiceName.YOUTUBE_PREMIUM, LocalDate.now(), null),
+                SubscriptionResponseDto.class);
+        ResponseEntity<String> changedSubscriptions = conditionalGet(userUrl + "/subscriptions", subscriptionsETag);
+        assertThat(changedSubscriptions.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(changedSubscriptions.getHeaders().getETag()).isNotEqualTo(subscriptionsETag);
+        assertThat(conditionalGet(userUrl, userETag).getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+
+        // Изменение пользователя меняет его ETag
+        restTemplate.exchange(userUrl, HttpMethod.PUT, new HttpEntity<>(new UserUpdateRequestDto(
+                "etaguser", "etag@example.com", "pass", "Changed", "User")), UserResponseDto.class);
+        ResponseEntity<String> changedUser = conditionalGet(userUrl, userETag);
+        assertThat(changedUser.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(changedUser.getHeaders().getETag()).isNotEqualTo(userETag);
+    }
+
+    private ResponseEntity<String> conditionalGet(String url, String eTag) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setIfNoneMatch(eTag);
+        return restTemplate.exchange(url, HttpMethod.GET, new HttpEntity<>(headers), String.class);
+    }
+
     @Test
     void shouldUpdateUserSuccessfully() {
         // 1. Создаем пользователя
@@ -186,4 +313,161 @@ public class UserControllerIntegrationTest {
         // 4. Проверка в БД
         assertThat(userRepository.findById(userId)).isEmpty();
     }
+
+    @Test
+    void shouldPageUsersByCursor() {
+        // 1. Создаем пять пользователей
+        for (int i = 1; i <= 5; i++) {
+            restTemplate.postForObject(baseUrl, new UserCreateRequestDto(
+                    "cursoruser" + i, "cursor" + i + "@example.com", "password", "Cursor", "User" + i), UserResponseDto.class);
+        }
+
+        // 2. Проходим по страницам размером 2, пока сервер возвращает курсор
+        List<String> usernames = new ArrayList<>();
+        String cursor = "";
+        int pages = 0;
+        do {
+            ResponseEntity<CursorPageDto<UserWithSubscriptionNamesDto>> response = restTemplate.exchange(
+                    baseUrl + "?size=2&sort=username,desc&cursor=" + cursor,
+                    HttpMethod.GET,
+                    null,
+                    new ParameterizedTypeReference<CursorPageDto<UserWithSubscriptionNamesDto>>() {}
+            );
+            assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+            response.getBody().content().forEach(user -> usernames.add(user.username()));
+            cursor = response.getBody().nextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertThat(pages).isEqualTo(3);
+        assertThat(usernames).containsExactly(
+                "cursoruser5", "cursoruser4", "cursoruser3", "cursoruser2", "cursoruser1");
+    }
+
+    @Test
+    void shouldPageUsersWithSubscriptionNamesInRequestedOrder() throws Exception {
+        // 1. Создаем трех пользователей, у второго — две подписки
+        List<UUID> userIds = new ArrayList<>();
+        for (int i = 1; i <= 3; i++) {
+            userIds.add(restTemplate.postForObject(baseUrl, new UserCreateRequestDto(
+                    "pageuser" + i, "page" + i + "@example.com", "password", "Page", "User" + i), UserResponseDto.class).id());
+        }
+        for (ServiceName serviceName : List.of(ServiceName.YOUTUBE_PREMIUM, ServiceName.VK_MUSIC)) {
+            restTemplate.postForEntity(baseUrl + "/" + userIds.get(1) + "/subscriptions",
+                    new SubscriptionCreateRequestDto(serviceName, LocalDate.now(), null), SubscriptionResponseDto.class);
+        }
+
+        // 2. Запрашиваем страницу с сортировкой по убыванию имени
+        ResponseEntity<String> response = restTemplate.getForEntity(
+                baseUrl + "?page=0&size=2&sort=username,desc", String.class);
+
+        // 3. Порядок страницы совпадает с сортировкой, имена подписок собраны из проекции
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        JsonNode body = objectMapper.readTree(response.getBody());
+        List<UserWithSubscriptionNamesDto> content = objectMapper.convertValue(body.get("content"),
+                objectMapper.getTypeFactory().constructCollectionType(List.class, UserWithSubscriptionNamesDto.class));
+        assertThat(content).extracting(UserWithSubscriptionNamesDto::username)
+                .containsExactly("pageuser3", "pageuser2");
+        assertThat(content.get(0).subscriptionNames()).isEmpty();
+        assertThat(content.get(1).subscriptionNames())
+                .containsExactlyInAnyOrder("YouTube Premium", "VK Музыка");
+        assertThat(body.at("/page/totalElements").asLong()).isEqualTo(3);
+    }
+
+    @Test
+    void shouldPageUsersWithoutExactCount() throws Exception {
+        for (int i = 1; i <= 3; i++) {
+            restTemplate.postForObject(baseUrl, new UserCreateRequestDto(
+                    "countuser" + i, "count" + i + "@example.com", "password", "Count", "User" + i), UserResponseDto.class);
+        }
+
+        // 1. count=none — срез без total, только признак следующей страницы
+        ResponseEntity<SliceDto<UserWithSubscriptionNamesDto>> sliceResponse = restTemplate.exchange(
+                baseUrl + "?page=0&size=2&sort=username&count=none",
+                HttpMethod.GET,
+                null,
+                new ParameterizedTypeReference<SliceDto<UserWithSubscriptionNamesDto>>() {}
+        );
+        assertThat(sliceResponse.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(sliceResponse.getBody().content()).extracting(UserWithSubscriptionNamesDto::username)
+                .containsExactly("countuser1", "countuser2");
+        assertThat(sliceResponse.getBody().hasNext()).isTrue();
+
+        // 2. count=estimated — последняя страница, total сводится к фактически увиденным строкам
+        ResponseEntity<String> estimatedResponse = restTemplate.getForEntity(
+                baseUrl + "?page=1&size=2&sort=username&count=estimated", String.class);
+        assertThat(estimatedResponse.getStatusCode()).isEqualTo(HttpStatus.OK);
+        JsonNode body = objectMapper.readTree(estimatedResponse.getBody());
+        assertThat(body.get("content")).hasSize(1);
+        assertThat(body.at("/page/totalElements").asLong()).isEqualTo(3);
+
+        // 3. Неизвестный режим — 400
+        ResponseEntity<String> invalidResponse = restTemplate.getForEntity(baseUrl + "?count=approximate", String.class);
+        assertThat(invalidResponse.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    void shouldRejectUnsupportedSortProperty() {
+        ResponseEntity<String> response = restTemplate.getForEntity(baseUrl + "?sort=password,asc", String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    void shouldExportUsersAsNdjson() throws Exception {
+        restTemplate.postForObject(baseUrl, new UserCreateRequestDto(
+                "exportuser1", "export1@example.com", "password", "Export", "One"), UserResponseDto.class);
+        restTemplate.postForObject(baseUrl, new UserCreateRequestDto(
+                "exportuser2", "export2@example.com", "password", "Export", "Two"), UserResponseDto.class);
+
+        ResponseEntity<String> response = restTemplate.getForEntity(baseUrl + "/export", String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_NDJSON);
+        List<String> usernames = new ArrayList<>();
+        for (String line : response.getBody().split("\n")) {
+            usernames.add(objectMapper.readValue(line, UserWithSubscriptionNamesDto.class).username());
+        }
+        assertThat(usernames).containsExactlyInAnyOrder("exportuser1", "exportuser2");
+    }
+
+    @Test
+    void shouldImportUsersInBulkReportingConflicts() {
+        // 1. Пользователь, с которым будет конфликт по username
+        restTemplate.postForObject(baseUrl, new UserCreateRequestDto(
+                "bulkexisting", "bulkexisting@example.com", "password", "Bulk", "Existing"), UserResponseDto.class);
+
+        // 2. Отправляем NDJSON: два валидных, один конфликт, один невалидный
+        String body = """
+                {"username":"bulkuser1","email":"bulk1@example.com","password":"password1"}
+                {"username":"bulkexisting","email":"other@example.com","password":"password2"}
+                {"username":"bu","email":"not-an-email","password":"123"}
+                {"username":"bulkuser2","email":"bulk2@example.com","password":"password3"}
+                """;
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_NDJSON);
+        ResponseEntity<UserBulkImportResultDto> response = restTemplate.postForEntity(
+                baseUrl + ":bulk", new HttpEntity<>(body, headers), UserBulkImportResultDto.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        UserBulkImportResultDto result = response.getBody();
+        assertThat(result).isNotNull();
+        assertThat(result.received()).isEqualTo(4);
+        assertThat(result.created()).isEqualTo(2);
+        assertThat(result.failed()).isEqualTo(2);
+        assertThat(result.errors()).extracting(UserBulkImportErrorDto::index).containsExactly(1, 2);
+        assertThat(result.errors().get(0).message()).contains("User with username bulkexisting already exists");
+
+        // 3. Проверка в БД
+        assertThat(userRepository.findByUsername("bulkuser1")).isPresent();
+        assertThat(userRepository.findByUsername("bulkuser2")).isPresent();
+    }
+
+    @Test
+    void shouldRejectMalformedCursor() {
+        ResponseEntity<Map> response = restTemplate.getForEntity(baseUrl + "?cursor=not-a-cursor", Map.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(response.getBody().get("message")).asString().contains("Invalid cursor");
+    }
 }
@@ -0,0 +1,125 @@
+package max.iv.usersubscriptionservice.availability;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Пересборка фильтров параллельно с добавлениями после коммита: каждое имя, закоммиченное до конца
+ * пересборки, должно попасть в новый фильтр — либо из чтения таблицы, либо через строящийся фильтр.
+ * База подменена множеством закоммиченных имён, чтение таблицы видит его снимок на момент начала запроса.
+ */
+public class UserAvailabilityFilterTest {
+
+    private static final int ROUNDS = 200;
+
+    private static final int WRITERS = 3;
+
+    // Длинные имена растягивают запись в фильтр, и пересборка чаще завершается посреди неё
+    private static final String PADDING = "x".repeat(20_000);
+
+    private final Set<String> committed = ConcurrentHashMap.newKeySet();
+
+    @Test
+    void shouldNotLoseUsersAddedDuringRebuild() throws Exception {
+        UserAvailabilityFilter filter = new UserAvailabilityFilter(new CommittedUsersJdbcTemplate(),
+                new ImmediateTransactionTemplate());
+        ReflectionTestUtils.setField(filter, "falsePositiveProbability", 0.01);
+        filter.rebuild();
+
+        ExecutorService executor = Executors.newFixedThreadPool(WRITERS);
+        try {
+            for (int round = 0; round < ROUNDS; round++) {
+                committed.clear();
+                AtomicBoolean rebuilding = new AtomicBoolean(true);
+                List<Future<List<String>>> writers = new ArrayList<>();
+                for (int writer = 0; writer < WRITERS; writer++) {
+                    String prefix = "round" + round + ".writer" + writer + ".";
+                    writers.add(executor.submit(() -> addWhile(filter, prefix, rebuilding)));
+                }
+                filter.rebuild();
+                rebuilding.set(false);
+
+                for (Future<List<String>> writer : writers) {
+                    long lost = writer.get().stream().filter(username -> !filter.mightContainUsername(username)).count();
+                    assertThat(lost).as("usernames lost in round %d", round).isZero();
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    // Коммит пишет имя в «базу», затем срабатывает afterCommit (без транзакции — сразу)
+    private List<String> addWhile(UserAvailabilityFilter filter, String prefix, AtomicBoolean rebuilding) {
+        List<String> usernames = new ArrayList<>();
+        do {
+            String username = prefix + usernames.size() + PADDING;
+            committed.add(username);
+            filter.recordAdded(username, username + "@example.com");
+            usernames.add(username);
+            Thread.yield();
+        } while (rebuilding.get());
+        return usernames;
+    }
+
+    private class CommittedUsersJdbcTemplate extends JdbcTemplate {
+
+        @Override
+        public <T> T queryForObject(String sql, Class<T> requiredType) {
+            return requiredType.cast((long) committed.size());
+        }
+
+        @Override
+        public void query(PreparedStatementCreator psc, RowCallbackHandler rch) {
+            List<String> snapshot = List.copyOf(committed);
+            try {
+                // Писатели тем временем коммитят имена, которых нет в снимке
+                Thread.sleep(1);
+                for (String username : snapshot) {
+                    rch.processRow(row(username, username + "@example.com"));
+                }
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+
+        private ResultSet row(String username, String email) {
+            return (ResultSet) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{ResultSet.class},
+                    (proxy, method, args) -> switch (method.getName()) {
+                        case "getString" -> (int) args[0] == 1 ? username : email;
+                        default -> throw new UnsupportedOperationException(method.getName());
+                    });
+        }
+    }
+
+    private static class ImmediateTransactionTemplate extends TransactionTemplate {
+
+        @Override
+        public <T> T execute(TransactionCallback<T> action) {
+            return action.doInTransaction(new SimpleTransactionStatus());
+        }
+    }
+}
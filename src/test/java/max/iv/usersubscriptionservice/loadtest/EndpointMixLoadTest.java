@@ -0,0 +1,362 @@
+package max.iv.usersubscriptionservice.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.zaxxer.hikari.HikariDataSource;
+import max.iv.usersubscriptionservice.UserSubscriptionServiceApplication;
+import max.iv.usersubscriptionservice.dto.SubscriptionCreateRequestDto;
+import max.iv.usersubscriptionservice.dto.UserCreateRequestDto;
+import max.iv.usersubscriptionservice.dto.UserUpdateRequestDto;
+import max.iv.usersubscriptionservice.models.enums.ServiceName;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import javax.sql.DataSource;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Нагрузочный прогон со смесью запросов ко всем эндпоинтам UserController и SubscriptionController.
+ * Сервис поднимается против PostgreSQL в Testcontainers и наполняется набором данных
+ * {@code loadtest.users} × {@code loadtest.subscriptions-per-user}; запросы отправляются с постоянной
+ * частотой {@code loadtest.rate} (открытая модель: медленные ответы не снижают частоту отправки).
+ * Отчёт пишется в {@code loadtest.report}. Запуск: {@code mvn -Pload-test test -Dtest=EndpointMixLoadTest}.
+ */
+@Tag("load")
+public class EndpointMixLoadTest {
+
+    private static final int USERS = Integer.getInteger("loadtest.users", 10_000);
+    private static final int SUBSCRIPTIONS_PER_USER = Integer.getInteger("loadtest.subscriptions-per-user", 3);
+    private static final double RATE = Double.parseDouble(System.getProperty("loadtest.rate", "200"));
+    private static final Duration WARMUP = Duration.parse(System.getProperty("loadtest.warmup", "PT10S"));
+    private static final Duration DURATION = Duration.parse(System.getProperty("loadtest.duration", "PT60S"));
+    private static final int POOL_SIZE = Integer.getInteger("loadtest.pool-size", 10);
+    private static final boolean VIRTUAL_THREADS = Boolean.getBoolean("loadtest.virtual-threads");
+    private static final Path REPORT = Path.of(System.getProperty("loadtest.report",
+            "target/load-test/endpoint-mix-report.json"));
+
+    private static final ServiceName[] SERVICE_NAMES = ServiceName.values();
+
+    private static final ObjectMapper objectMapper = new ObjectMapper()
+            .findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .enable(SerializationFeature.INDENT_OUTPUT);
+
+    private static PostgreSQLContainer<?> postgres;
+
+    private final AtomicLong sequence = new AtomicLong();
+    private final ConcurrentLinkedQueue<UUID> createdUsers = new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<CreatedSubscription> createdSubscriptions = new ConcurrentLinkedQueue<>();
+
+    private List<UUID> userIds;
+    private String baseUrl;
+
+    @BeforeAll
+    static void startDatabase() {
+        postgres = new PostgreSQLContainer<>("postgres:16-alpine").withDatabaseName("load-test-db");
+        postgres.start();
+    }
+
+    @AfterAll
+    static void stopDatabase() {
+        postgres.stop();
+    }
+
+    @Test
+    void driveEndpointMix() throws Exception {
+        // properties() билдера задаёт только значения по умолчанию, и application.properties их перекрывает,
+        // поэтому настройки передаются аргументами командной строки
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(UserSubscriptionServiceApplication.class)
+                .run("--server.port=0",
+                        "--spring.datasource.url=" + postgres.getJdbcUrl(),
+                        "--spring.datasource.username=" + postgres.getUsername(),
+                        "--spring.datasource.password=" + postgres.getPassword(),
+                        "--spring.datasource.hikari.maximum-pool-size=" + POOL_SIZE,
+                        "--spring.jpa.show-sql=false",
+                        "--spring.threads.virtual.enabled=" + VIRTUAL_THREADS)) {
+            baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            HttpClient httpClient = HttpClient.newBuilder()
+                    .executor(Executors.newVirtualThreadPerTaskExecutor())
+                    .connectTimeout(Duration.ofSeconds(5))
+                    .build();
+            userIds = LoadTestDataset.seed(httpClient, baseUrl, USERS, SUBSCRIPTIONS_PER_USER);
+            List<Operation> operations = operations();
+
+            Instant startedAt = Instant.now();
+            drive(httpClient, operations, WARMUP, new ConcurrentHashMap<>());
+
+            HikariDataSource hikari = context.getBean(DataSource.class).unwrap(HikariDataSource.class);
+            Map<String, EndpointStats> stats = new ConcurrentHashMap<>();
+            LoadTestReport.PoolSaturation pool;
+            try (PoolSaturationSampler sampler = new PoolSaturationSampler(hikari.getHikariPoolMXBean(), POOL_SIZE, 100)) {
+                drive(httpClient, operations, DURATION, stats);
+                pool = sampler.result();
+            }
+
+            LoadTestReport report = report(startedAt, stats, pool);
+            Files.createDirectories(REPORT.toAbsolutePath().getParent());
+            objectMapper.writeValue(REPORT.toFile(), report);
+            printSummary(report);
+
+            assertThat(report.totals().requests()).isPositive();
+        }
+    }
+
+    /**
+     * Смесь запросов с весами: чтение преобладает, удаляются только созданные во время прогона данные,
+     * поэтому исходный набор данных не деградирует.
+     */
+    private List<Operation> operations() {
+        return List.of(
+                new Operation("GET /users/{id}", 20,
+                        () -> get("/users/" + randomUserId()), null),
+                new Operation("GET /users/{id}/with-subscriptions", 15,
+                        () -> get("/users/" + randomUserId() + "/with-subscriptions"), null),
+                new Operation("GET /users?page", 10,
+                        () -> get("/users?page=" + ThreadLocalRandom.current().nextInt(50) + "&size=20"), null),
+                new Operation("GET /users?cursor", 5,
+                        () -> get("/users?cursor=&size=20"), null),
+                new Operation("GET /users/{userId}/subscriptions", 15,
+                        () -> get("/users/" + randomUserId() + "/subscriptions"), null),
+                new Operation("GET /subscriptions/top", 10,
+                        () -> get("/subscriptions/top"), null),
+                new Operation("POST /users", 6,
+                        this::createUserRequest,
+                        body -> createdUsers.add(readUuid(body, "id"))),
+                new Operation("PUT /users/{id}", 5,
+                        () -> send("PUT", "/users/" + randomUserId(),
+                                new UserUpdateRequestDto(null, null, null, "Updated" + sequence.incrementAndGet(), null)),
+                        null),
+                new Operation("POST /users/{userId}/subscriptions", 6,
+                        this::createSubscriptionRequest,
+                        body -> createdSubscriptions.add(
+                                new CreatedSubscription(readUuid(body, "userId"), readUuid(body, "id")))),
+                new Operation("DELETE /users/{userId}/subscriptions/{subscriptionId}", 4,
+                        this::deleteSubscriptionRequest, null),
+                new Operation("DELETE /users/{id}", 4,
+                        this::deleteUserRequest, null)
+        );
+    }
+
+    private HttpRequest createUserRequest() {
+        long n = sequence.incrementAndGet();
+        return send("POST", "/users", new UserCreateRequestDto("mix.user." + n, "mix.user." + n + "@example.com",
+                "password", "Mix", "User" + n));
+    }
+
+    private HttpRequest createSubscriptionRequest() {
+        UUID userId = createdUsers.poll();
+        if (userId == null) {
+            return null;
+        }
+        // Пока у созданного пользователя есть подписка, он не участвует в других изменениях
+        ServiceName serviceName = SERVICE_NAMES[ThreadLocalRandom.current().nextInt(SERVICE_NAMES.length)];
+        return send("POST", "/users/" + userId + "/subscriptions",
+                new SubscriptionCreateRequestDto(serviceName, LocalDate.now(), null));
+    }
+
+    private HttpRequest deleteSubscriptionRequest() {
+        CreatedSubscription created = createdSubscriptions.poll();
+        if (created == null) {
+            return null;
+        }
+        createdUsers.add(created.userId());
+        return HttpRequest.newBuilder(URI.create(baseUrl + "/users/" + created.userId()
+                        + "/subscriptions/" + created.subscriptionId()))
+                .DELETE()
+                .build();
+    }
+
+    private HttpRequest deleteUserRequest() {
+        UUID userId = createdUsers.poll();
+        if (userId == null) {
+            return null;
+        }
+        return HttpRequest.newBuilder(URI.create(baseUrl + "/users/" + userId)).DELETE().build();
+    }
+
+    private void drive(HttpClient httpClient, List<Operation> operations, Duration duration,
+                       Map<String, EndpointStats> stats) {
+        int totalWeight = operations.stream().mapToInt(Operation::weight).sum();
+        long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / RATE);
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        try (ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long i = 0; ; i++) {
+                long intended = start + i * intervalNanos;
+                if (intended - end >= 0) {
+                    break;
+                }
+                long wait = intended - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                Operation operation = pick(operations, totalWeight);
+                HttpRequest request = operation.request().get();
+                if (request == null) {
+                    operation = operations.get(0);
+                    request = operation.request().get();
+                }
+                Operation selected = operation;
+                HttpRequest prepared = request;
+                EndpointStats endpointStats = stats.computeIfAbsent(selected.name(), name -> new EndpointStats());
+                senders.submit(() -> execute(httpClient, selected, prepared, intended, endpointStats));
+            }
+        }
+    }
+
+    private void execute(HttpClient httpClient, Operation operation, HttpRequest request,
+                         long intendedStart, EndpointStats stats) {
+        String status;
+        try {
+            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            status = String.valueOf(response.statusCode());
+            if (response.statusCode() >= 500) {
+                stats.errors.increment();
+            } else if (response.statusCode() < 300 && operation.onSuccess() != null) {
+                operation.onSuccess().accept(response.body());
+            }
+        } catch (Exception e) {
+            status = e.getClass().getSimpleName();
+            stats.errors.increment();
+        }
+        // Латентность от запланированного момента: задержка отправки из-за перегрузки тоже учитывается
+        stats.latency.recordValue(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - intendedStart));
+        stats.statuses.computeIfAbsent(status, key -> new LongAdder()).increment();
+    }
+
+    private LoadTestReport report(Instant startedAt, Map<String, EndpointStats> stats,
+                                  LoadTestReport.PoolSaturation pool) {
+        double seconds = DURATION.toMillis() / 1000.0;
+        List<LoadTestReport.EndpointResult> endpoints = new ArrayList<>();
+        long requests = 0;
+        long errors = 0;
+        for (Map.Entry<String, EndpointStats> entry : new TreeMap<>(stats).entrySet()) {
+            Histogram latency = entry.getValue().latency;
+            Map<String, Long> statuses = new TreeMap<>();
+            entry.getValue().statuses.forEach((status, count) -> statuses.put(status, count.sum()));
+            long endpointErrors = entry.getValue().errors.sum();
+            endpoints.add(new LoadTestReport.EndpointResult(entry.getKey(), latency.getTotalCount(), endpointErrors,
+                    latency.getTotalCount() / seconds,
+                    new LoadTestReport.Latency(
+                            latency.getMean() / 1000.0,
+                            latency.getValueAtPercentile(50) / 1000.0,
+                            latency.getValueAtPercentile(95) / 1000.0,
+                            latency.getValueAtPercentile(99) / 1000.0,
+                            latency.getValueAtPercentile(99.9) / 1000.0,
+                            latency.getMaxValue() / 1000.0),
+                    statuses));
+            requests += latency.getTotalCount();
+            errors += endpointErrors;
+        }
+        endpoints.sort(Comparator.comparingLong(LoadTestReport.EndpointResult::requests).reversed());
+        return new LoadTestReport(startedAt,
+                new LoadTestReport.Settings(USERS, SUBSCRIPTIONS_PER_USER, RATE,
+                        WARMUP.toSeconds(), DURATION.toSeconds(), POOL_SIZE, VIRTUAL_THREADS),
+                new LoadTestReport.Totals(requests, errors, requests / seconds),
+                endpoints,
+                pool);
+    }
+
+    private void printSummary(LoadTestReport report) {
+        System.out.printf("%n%-55s %9s %8s %9s %9s %9s %9s%n",
+                "endpoint", "req/s", "errors", "p50 ms", "p95 ms", "p99 ms", "p999 ms");
+        for (LoadTestReport.EndpointResult endpoint : report.endpoints()) {
+            System.out.printf("%-55s %9.1f %8d %9.2f %9.2f %9.2f %9.2f%n",
+                    endpoint.endpoint(), endpoint.throughputPerSecond(), endpoint.errors(),
+                    endpoint.latencyMs().p50(), endpoint.latencyMs().p95(),
+                    endpoint.latencyMs().p99(), endpoint.latencyMs().p999());
+        }
+        System.out.printf("total %.1f req/s, %d errors; pool active mean %.1f / max %d, pending max %d, saturated %.0f%%%n",
+                report.totals().throughputPerSecond(), report.totals().errors(),
+                report.pool().meanActive(), report.pool().maxActive(), report.pool().maxPending(),
+                report.pool().saturatedRatio() * 100);
+        System.out.println("Report written to " + REPORT.toAbsolutePath());
+    }
+
+    private UUID randomUserId() {
+        return userIds.get(ThreadLocalRandom.current().nextInt(userIds.size()));
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).GET().build();
+    }
+
+    private HttpRequest send(String method, String path, Object body) {
+        try {
+            return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                    .header("Content-Type", "application/json")
+                    .method(method, HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+                    .build();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Operation pick(List<Operation> operations, int totalWeight) {
+        int point = ThreadLocalRandom.current().nextInt(totalWeight);
+        for (Operation operation : operations) {
+            point -= operation.weight();
+            if (point < 0) {
+                return operation;
+            }
+        }
+        throw new IllegalStateException("Weights do not add up");
+    }
+
+    private static UUID readUuid(String body, String field) {
+        try {
+            return UUID.fromString(objectMapper.readTree(body).get(field).asText());
+        } catch (Exception e) {
+            throw new IllegalStateException("Cannot read id from response: " + body, e);
+        }
+    }
+
+    /**
+     * @param request возвращает {@code null}, если для операции пока нет подходящих данных
+     */
+    private record Operation(String name, int weight, Supplier<HttpRequest> request, Consumer<String> onSuccess) {
+    }
+
+    private record CreatedSubscription(UUID userId, UUID subscriptionId) {
+    }
+
+    private static final class EndpointStats {
+        private final Histogram latency = new ConcurrentHistogram(3);
+        private final LongAdder errors = new LongAdder();
+        private final Map<String, LongAdder> statuses = new ConcurrentHashMap<>();
+    }
+}
@@ -0,0 +1,98 @@
+package max.iv.usersubscriptionservice.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import max.iv.usersubscriptionservice.dto.SubscriptionBatchItemDto;
+import max.iv.usersubscriptionservice.dto.UserCreateRequestDto;
+import max.iv.usersubscriptionservice.models.enums.ServiceName;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Наполнение запущенного сервиса данными через его же bulk-эндпоинты:
+ * {@code users} пользователей, у каждого {@code subscriptionsPerUser} подписок на разные сервисы.
+ * Набор данных детерминирован (фиксированный seed), чтобы прогоны были сравнимы.
+ */
+final class LoadTestDataset {
+
+    private static final int CHUNK_SIZE = 10_000;
+
+    private static final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    private LoadTestDataset() {
+    }
+
+    /**
+     * @return идентификаторы всех пользователей в базе после наполнения
+     */
+    static List<UUID> seed(HttpClient httpClient, String baseUrl, int users, int subscriptionsPerUser) throws Exception {
+        for (int from = 0; from < users; from += CHUNK_SIZE) {
+            List<UserCreateRequestDto> chunk = new ArrayList<>();
+            for (int i = from; i < Math.min(from + CHUNK_SIZE, users); i++) {
+                chunk.add(new UserCreateRequestDto("load.user." + i, "load.user." + i + "@example.com",
+                        "password", "Load", "User" + i));
+            }
+            post(httpClient, baseUrl + "/users:bulk", chunk);
+        }
+
+        List<UUID> userIds = exportUserIds(httpClient, baseUrl);
+
+        ServiceName[] serviceNames = ServiceName.values();
+        int perUser = Math.min(subscriptionsPerUser, serviceNames.length);
+        Random random = new Random(42);
+        List<SubscriptionBatchItemDto> chunk = new ArrayList<>();
+        for (UUID userId : userIds) {
+            int offset = random.nextInt(serviceNames.length);
+            for (int j = 0; j < perUser; j++) {
+                chunk.add(new SubscriptionBatchItemDto(userId, serviceNames[(offset + j) % serviceNames.length],
+                        LocalDate.now().minusDays(random.nextInt(365)), null));
+            }
+            if (chunk.size() >= CHUNK_SIZE) {
+                post(httpClient, baseUrl + "/subscriptions:batch", chunk);
+                chunk = new ArrayList<>();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            post(httpClient, baseUrl + "/subscriptions:batch", chunk);
+        }
+        return userIds;
+    }
+
+    private static List<UUID> exportUserIds(HttpClient httpClient, String baseUrl) throws Exception {
+        HttpResponse<Stream<String>> export = httpClient.send(
+                HttpRequest.newBuilder(URI.create(baseUrl + "/users/export")).GET().build(),
+                HttpResponse.BodyHandlers.ofLines());
+        try (Stream<String> lines = export.body()) {
+            return lines.map(LoadTestDataset::readId).toList();
+        }
+    }
+
+    private static void post(HttpClient httpClient, String url, Object body) throws Exception {
+        HttpResponse<String> response = httpClient.send(HttpRequest.newBuilder(URI.create(url))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+                        .build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertThat(response.statusCode()).as(response.body()).isLessThan(300);
+    }
+
+    private static UUID readId(String line) {
+        try {
+            return UUID.fromString(objectMapper.readTree(line).get("id").asText());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot parse exported user: " + line, e);
+        }
+    }
+}
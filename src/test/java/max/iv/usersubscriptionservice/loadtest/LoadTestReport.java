@@ -0,0 +1,69 @@
+package max.iv.usersubscriptionservice.loadtest;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Машиночитаемый отчёт нагрузочного прогона; сериализуется в JSON.
+ * Латентности в миллисекундах, считаются от запланированного момента отправки запроса.
+ */
+record LoadTestReport(
+        Instant startedAt,
+        Settings settings,
+        Totals totals,
+        List<EndpointResult> endpoints,
+        PoolSaturation pool
+) {
+
+    record Settings(
+            int users,
+            int subscriptionsPerUser,
+            double targetRatePerSecond,
+            long warmupSeconds,
+            long durationSeconds,
+            int maximumPoolSize,
+            boolean virtualThreads
+    ) {
+    }
+
+    record Totals(
+            long requests,
+            long errors,
+            double throughputPerSecond
+    ) {
+    }
+
+    record EndpointResult(
+            String endpoint,
+            long requests,
+            long errors,
+            double throughputPerSecond,
+            Latency latencyMs,
+            Map<String, Long> statuses
+    ) {
+    }
+
+    record Latency(
+            double mean,
+            double p50,
+            double p95,
+            double p99,
+            double p999,
+            double max
+    ) {
+    }
+
+    /**
+     * Выборки состояния пула Hikari; {@code saturatedRatio} — доля выборок, в которых заняты все соединения.
+     */
+    record PoolSaturation(
+            long samples,
+            double meanActive,
+            int maxActive,
+            double meanPending,
+            int maxPending,
+            double saturatedRatio
+    ) {
+    }
+}
@@ -0,0 +1,60 @@
+package max.iv.usersubscriptionservice.loadtest;
+
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Периодически снимает active/pending с пула Hikari и агрегирует их для {@link LoadTestReport.PoolSaturation}.
+ */
+final class PoolSaturationSampler implements AutoCloseable {
+
+    private final HikariPoolMXBean pool;
+
+    private final int maximumPoolSize;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+    private long samples;
+    private long activeSum;
+    private int maxActive;
+    private long pendingSum;
+    private int maxPending;
+    private long saturatedSamples;
+
+    PoolSaturationSampler(HikariPoolMXBean pool, int maximumPoolSize, long intervalMillis) {
+        this.pool = pool;
+        this.maximumPoolSize = maximumPoolSize;
+        scheduler.scheduleAtFixedRate(this::sample, 0, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private synchronized void sample() {
+        int active = pool.getActiveConnections();
+        int pending = pool.getThreadsAwaitingConnection();
+        samples++;
+        activeSum += active;
+        maxActive = Math.max(maxActive, active);
+        pendingSum += pending;
+        maxPending = Math.max(maxPending, pending);
+        if (active >= maximumPoolSize) {
+            saturatedSamples++;
+        }
+    }
+
+    synchronized LoadTestReport.PoolSaturation result() {
+        if (samples == 0) {
+            return new LoadTestReport.PoolSaturation(0, 0, 0, 0, 0, 0);
+        }
+        return new LoadTestReport.PoolSaturation(samples,
+                activeSum / (double) samples, maxActive,
+                pendingSum / (double) samples, maxPending,
+                saturatedSamples / (double) samples);
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+}
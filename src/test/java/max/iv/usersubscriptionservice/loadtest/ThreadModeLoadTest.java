@@ -0,0 +1,198 @@
+package max.iv.usersubscriptionservice.loadtest;
+
+import eu.rekawek.toxiproxy.Proxy;
+import eu.rekawek.toxiproxy.ToxiproxyClient;
+import eu.rekawek.toxiproxy.model.ToxicDirection;
+import max.iv.usersubscriptionservice.UserSubscriptionServiceApplication;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.testcontainers.containers.Network;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.containers.ToxiproxyContainer;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Сравнение пропускной способности и p99 при обработке запросов на платформенных и виртуальных потоках
+ * и на реактивном стеке (профиль {@code reactive}, WebFlux + R2DBC) при одинаковом размере пула соединений.
+ * Между приложением и PostgreSQL стоит Toxiproxy с фиксированной задержкой, чтобы запросы реально ждали БД.
+ * Колонка {@code in-flight/conn} — среднее число одновременно обслуживаемых запросов на одно соединение
+ * (закон Литтла: пропускная способность × среднее время ответа / размер пула).
+ * Запуск: {@code mvn -Pload-test test}; параметры — системные свойства {@code loadtest.*}.
+ */
+@Tag("load")
+public class ThreadModeLoadTest {
+
+    private static final int CONCURRENCY = Integer.getInteger("loadtest.concurrency", 400);
+    private static final Duration DURATION = Duration.parse(System.getProperty("loadtest.duration", "PT20S"));
+    private static final Duration WARMUP = Duration.parse(System.getProperty("loadtest.warmup", "PT5S"));
+    private static final int DB_LATENCY_MS = Integer.getInteger("loadtest.db-latency-ms", 5);
+    private static final int USERS = Integer.getInteger("loadtest.users", 2000);
+    private static final int POOL_SIZE = Integer.getInteger("loadtest.pool-size", 10);
+
+    private static Network network;
+    private static PostgreSQLContainer<?> postgres;
+    private static ToxiproxyContainer toxiproxy;
+    private static String proxiedJdbcUrl;
+    private static String proxiedR2dbcUrl;
+    private static final List<UUID> userIds = new ArrayList<>();
+
+    @BeforeAll
+    static void startInfrastructure() throws Exception {
+        network = Network.newNetwork();
+        postgres = new PostgreSQLContainer<>("postgres:16-alpine")
+                .withNetwork(network)
+                .withNetworkAliases("postgres")
+                .withDatabaseName("load-test-db");
+        toxiproxy = new ToxiproxyContainer("ghcr.io/shopify/toxiproxy:2.5.0").withNetwork(network);
+        postgres.start();
+        toxiproxy.start();
+
+        ToxiproxyClient client = new ToxiproxyClient(toxiproxy.getHost(), toxiproxy.getControlPort());
+        Proxy proxy = client.createProxy("postgres", "0.0.0.0:8666", "postgres:5432");
+        proxy.toxics().latency("db-latency", ToxicDirection.DOWNSTREAM, DB_LATENCY_MS);
+        proxiedJdbcUrl = "jdbc:postgresql://%s:%d/%s".formatted(
+                toxiproxy.getHost(), toxiproxy.getMappedPort(8666), postgres.getDatabaseName());
+        proxiedR2dbcUrl = "r2dbc:postgresql://%s:%d/%s".formatted(
+                toxiproxy.getHost(), toxiproxy.getMappedPort(8666), postgres.getDatabaseName());
+    }
+
+    @AfterAll
+    static void stopInfrastructure() {
+        toxiproxy.stop();
+        postgres.stop();
+        network.close();
+    }
+
+    @Test
+    void compareThreadModes() throws Exception {
+        // Реактивный режим идёт последним: в нём нет bulk-эндпоинтов, данные к этому моменту уже загружены
+        List<RunResult> results = new ArrayList<>();
+        for (Mode mode : Mode.values()) {
+            results.add(runScenario(mode));
+        }
+
+        System.out.printf("%n%-10s %12s %10s %10s %10s %15s %8s%n",
+                "mode", "req/s", "p50 ms", "p99 ms", "max ms", "in-flight/conn", "errors");
+        for (RunResult result : results) {
+            double inFlightPerConnection = result.throughput() * result.histogram().getMean() / 1_000_000.0 / POOL_SIZE;
+            System.out.printf("%-10s %12.1f %10.2f %10.2f %10.2f %15.1f %8d%n",
+                    result.mode(), result.throughput(),
+                    result.histogram().getValueAtPercentile(50) / 1000.0,
+                    result.histogram().getValueAtPercentile(99) / 1000.0,
+                    result.histogram().getMaxValue() / 1000.0,
+                    inFlightPerConnection,
+                    result.errors());
+        }
+
+        assertThat(results).allSatisfy(result -> assertThat(result.histogram().getTotalCount()).isPositive());
+    }
+
+    private RunResult runScenario(Mode mode) throws Exception {
+        // properties() билдера задаёт только значения по умолчанию, и application.properties и свойства профиля
+        // их перекрывают, поэтому настройки передаются аргументами командной строки
+        List<String> args = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--spring.datasource.url=" + proxiedJdbcUrl,
+                "--spring.datasource.username=" + postgres.getUsername(),
+                "--spring.datasource.password=" + postgres.getPassword(),
+                "--spring.datasource.hikari.maximum-pool-size=" + POOL_SIZE,
+                "--spring.jpa.show-sql=false",
+                "--spring.threads.virtual.enabled=" + (mode == Mode.VIRTUAL)));
+
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(UserSubscriptionServiceApplication.class);
+        if (mode == Mode.REACTIVE) {
+            builder.profiles("reactive");
+            args.add("--spring.r2dbc.url=" + proxiedR2dbcUrl);
+            args.add("--spring.r2dbc.pool.initial-size=" + POOL_SIZE);
+            args.add("--spring.r2dbc.pool.max-size=" + POOL_SIZE);
+        }
+
+        try (ConfigurableApplicationContext context = builder.run(args.toArray(String[]::new))) {
+            String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            HttpClient httpClient = HttpClient.newBuilder()
+                    .executor(Executors.newVirtualThreadPerTaskExecutor())
+                    .connectTimeout(Duration.ofSeconds(5))
+                    .build();
+            if (userIds.isEmpty()) {
+                userIds.addAll(LoadTestDataset.seed(httpClient, baseUrl, USERS, 3));
+            }
+
+            drive(httpClient, baseUrl, WARMUP, new ConcurrentHistogram(3), new AtomicLong());
+            Histogram histogram = new ConcurrentHistogram(3);
+            AtomicLong errors = new AtomicLong();
+            long completed = drive(httpClient, baseUrl, DURATION, histogram, errors);
+            return new RunResult(mode.name().toLowerCase(),
+                    completed / (double) DURATION.toSeconds(), histogram, errors.get());
+        }
+    }
+
+    private long drive(HttpClient httpClient, String baseUrl, Duration duration,
+                       Histogram histogram, AtomicLong errors) throws InterruptedException {
+        AtomicLong completed = new AtomicLong();
+        long deadline = System.nanoTime() + duration.toNanos();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < CONCURRENCY; i++) {
+                clients.submit(() -> {
+                    while (System.nanoTime() < deadline) {
+                        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + nextPath()))
+                                .timeout(Duration.ofSeconds(30))
+                                .GET()
+                                .build();
+                        long start = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() >= 400) {
+                                errors.incrementAndGet();
+                            }
+                        } catch (Exception e) {
+                            errors.incrementAndGet();
+                        }
+                        histogram.recordValue(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start));
+                        completed.incrementAndGet();
+                    }
+                    return null;
+                });
+            }
+        }
+        return completed.get();
+    }
+
+    private String nextPath() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        UUID userId = userIds.get(random.nextInt(userIds.size()));
+        return switch (random.nextInt(4)) {
+            case 0 -> "/users/" + userId;
+            case 1 -> "/users/" + userId + "/with-subscriptions";
+            case 2 -> "/users/" + userId + "/subscriptions";
+            default -> "/users?page=" + random.nextInt(20) + "&size=20";
+        };
+    }
+
+    private enum Mode {
+        PLATFORM, VIRTUAL, REACTIVE
+    }
+
+    private record RunResult(String mode, double throughput, Histogram histogram, long errors) {
+    }
+}